@@ -1,28 +1,74 @@
 package com.nixo.fde.slackbot.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.nixo.fde.slackbot.payload.Embedding;
+import lombok.RequiredArgsConstructor;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded Caffeine caches (W-TinyLFU eviction, per-cache TTL) with statistics recording.
+ * <p>
+ * Every in-heap cache the app keeps is registered here, so it is configured from
+ * {@code cache.specs} and shows up in the cache diagnostics. Services use the native caches
+ * through {@link #nativeCache}. Embedding caches are bounded by approximate bytes.
+ */
 @Configuration
 @EnableCaching
 @EnableScheduling
+@RequiredArgsConstructor
 public class CacheConfig {
 
+    public static final String EMBEDDINGS = "embeddings";
+    public static final String TEXT_EMBEDDINGS = "text-embeddings";
+    public static final String SLACK_USER_NAMES = "slack-user-names";
+    public static final String SLACK_CHANNEL_NAMES = "slack-channel-names";
+    public static final String THREAD_ROUTES = "thread-routes";
+
+    // Rough heap footprint of a String key plus an Embedding value
+    private static final Weigher<Object, Object> APPROXIMATE_BYTES = (key, value) -> {
+        int keyBytes = key instanceof String s ? 40 + 2 * s.length() : 16;
+        int valueBytes = value instanceof Embedding e ? 48 + 4 * e.getDimensions() : 16;
+        return keyBytes + valueBytes;
+    };
+
+    private final CacheConfigProperties properties;
+
     @Bean
     public CacheManager cacheManager() {
-        // Creates simple in-memory maps for our data
-        return new ConcurrentMapCacheManager("embeddings", "classifications");
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Unknown cache names would otherwise be created unbounded
+        cacheManager.setCacheNames(List.of());
+        for (Map.Entry<String, String> spec : properties.getSpecs().entrySet()) {
+            Caffeine<Object, Object> builder = Caffeine.from(spec.getValue()).recordStats();
+            if (spec.getValue().contains("maximumWeight")) {
+                builder.weigher(APPROXIMATE_BYTES);
+            }
+            cacheManager.registerCustomCache(spec.getKey(), builder.build());
+        }
+        return cacheManager;
     }
 
-    // Safety: Clear cache every hour to prevent memory leaks in a long-running app
-    @Scheduled(fixedRate = 3600000)
-    public void evictAllCaches() {
-        cacheManager().getCacheNames()
-                .forEach(cacheName -> cacheManager().getCache(cacheName).clear());
+    /**
+     * The native Caffeine cache behind a registered cache, for services that need more than the
+     * Spring {@code Cache} API (e.g. iterating entries).
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Cache<K, V> nativeCache(CacheManager cacheManager, String name) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(name);
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            throw new IllegalStateException("No Caffeine cache registered as '" + name + "'; check cache.specs");
+        }
+        return (Cache<K, V>) (Cache<?, ?>) caffeineCache.getNativeCache();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.nixo.fde.slackbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+@Data
+public class CacheConfigProperties {
+
+    // Caffeine spec per cache name; maximumWeight is in bytes for the embedding caches
+    private Map<String, String> specs = new LinkedHashMap<>(Map.of(
+            CacheConfig.EMBEDDINGS, "maximumWeight=67108864,expireAfterAccess=24h",
+            CacheConfig.TEXT_EMBEDDINGS, "maximumWeight=67108864,expireAfterAccess=24h",
+            CacheConfig.SLACK_USER_NAMES, "maximumSize=10000,expireAfterWrite=12h",
+            CacheConfig.SLACK_CHANNEL_NAMES, "maximumSize=2000,expireAfterWrite=12h",
+            CacheConfig.THREAD_ROUTES, "maximumSize=100000"
+    ));
+}
@@ -0,0 +1,47 @@
+package com.nixo.fde.slackbot.config;
+
+import lombok.RequiredArgsConstructor;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shared OkHttpClient for the AI providers and the Slack API, so every outbound call reuses
+ * the same connection pool and HTTP/2 sessions instead of each service holding its own client.
+ * The dispatcher limits double as the cap on concurrent provider calls from the async path.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HttpClientConfig {
+
+    private final HttpClientConfigProperties properties;
+
+    @Bean
+    public OkHttpClient okHttpClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(properties.getDispatcher().getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(properties.getDispatcher().getMaxRequestsPerHost());
+
+        HttpClientConfigProperties.Timeout timeout = properties.getTimeout();
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(
+                        properties.getPool().getMaxIdleConnections(),
+                        properties.getPool().getKeepAliveSeconds(),
+                        TimeUnit.SECONDS))
+                .protocols(properties.isHttp2()
+                        ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(timeout.getConnectMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(timeout.getReadMs(), TimeUnit.MILLISECONDS)
+                .writeTimeout(timeout.getWriteMs(), TimeUnit.MILLISECONDS)
+                .callTimeout(timeout.getCallMs(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
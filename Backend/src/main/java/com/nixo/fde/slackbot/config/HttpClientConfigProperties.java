@@ -0,0 +1,39 @@
+package com.nixo.fde.slackbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "http.client")
+@Data
+public class HttpClientConfigProperties {
+
+    private Dispatcher dispatcher = new Dispatcher();
+    private Pool pool = new Pool();
+    private Timeout timeout = new Timeout();
+    private boolean http2 = true;
+
+    @Data
+    public static class Dispatcher {
+        // Total in-flight async calls across all hosts
+        private Integer maxRequests = 64;
+        // In-flight async calls to a single provider host
+        private Integer maxRequestsPerHost = 16;
+    }
+
+    @Data
+    public static class Pool {
+        private Integer maxIdleConnections = 16;
+        private Long keepAliveSeconds = 300L;
+    }
+
+    @Data
+    public static class Timeout {
+        private Long connectMs = 5000L;
+        private Long readMs = 30000L;
+        private Long writeMs = 10000L;
+        // Hard cap on a whole call, including retries and redirects (0 = none)
+        private Long callMs = 60000L;
+    }
+}
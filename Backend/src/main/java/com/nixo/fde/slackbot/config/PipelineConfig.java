@@ -0,0 +1,46 @@
+package com.nixo.fde.slackbot.config;
+
+import com.nixo.fde.slackbot.utils.KeyedSerialExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Executors for the Slack event pipeline.
+ * <p>
+ * The base executor is built from the standard {@code spring.task.execution.*} settings: a
+ * platform thread pool by default, or virtual threads when {@code spring.threads.virtual.enabled}
+ * is set on JDK 21. It is declared explicitly because the WebSocket broker's own executors stop
+ * Boot from creating {@code applicationTaskExecutor}. Events are then routed through a
+ * {@link KeyedSerialExecutor} keyed by conversation.
+ */
+@Slf4j
+@Configuration
+public class PipelineConfig {
+
+    @Bean
+    public AsyncTaskExecutor eventTaskExecutor(
+            ThreadPoolTaskExecutorBuilder poolBuilder,
+            SimpleAsyncTaskExecutorBuilder simpleBuilder,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            log.info("Event pipeline running on virtual threads");
+            return simpleBuilder.virtualThreads(true).threadNamePrefix("event-").build();
+        }
+        if (virtualThreads) {
+            log.warn("spring.threads.virtual.enabled is set but the JVM is {}; using a platform thread pool", Runtime.version());
+        }
+        return poolBuilder.threadNamePrefix("event-").build();
+    }
+
+    @Bean
+    public KeyedSerialExecutor eventKeyedExecutor(@Qualifier("eventTaskExecutor") AsyncTaskExecutor eventTaskExecutor) {
+        return new KeyedSerialExecutor(eventTaskExecutor);
+    }
+}
@@ -0,0 +1,75 @@
+package com.nixo.fde.slackbot.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nixo.fde.slackbot.config.CacheConfig;
+import com.nixo.fde.slackbot.service.EventDeduplicationService;
+import com.nixo.fde.slackbot.service.PersistentAiCacheService;
+import com.nixo.fde.slackbot.service.PreClassifierService;
+import com.nixo.fde.slackbot.service.SemanticClassificationCache;
+import com.nixo.fde.slackbot.service.TicketTouchBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+    private final PreClassifierService preClassifierService;
+    private final EventDeduplicationService deduplicationService;
+    private final SemanticClassificationCache semanticClassificationCache;
+    private final CacheManager cacheManager;
+    private final PersistentAiCacheService persistentAiCacheService;
+    private final TicketTouchBuffer ticketTouchBuffer;
+
+    @GetMapping("/classifier")
+    public ResponseEntity<Map<String, Object>> getClassifierStats() {
+        return ResponseEntity.ok(preClassifierService.getStats());
+    }
+
+    @GetMapping("/classification-cache")
+    public ResponseEntity<Map<String, Object>> getClassificationCacheStats() {
+        return ResponseEntity.ok(semanticClassificationCache.getStats());
+    }
+
+    @GetMapping("/persistent-cache")
+    public ResponseEntity<Map<String, Object>> getPersistentCacheStats() {
+        return ResponseEntity.ok(persistentAiCacheService.getStats());
+    }
+
+    @GetMapping("/ticket-touches")
+    public ResponseEntity<Map<String, Object>> getTicketTouchStats() {
+        return ResponseEntity.ok(ticketTouchBuffer.getStats());
+    }
+
+    @GetMapping("/dedup")
+    public ResponseEntity<Map<String, Object>> getDedupStats() {
+        return ResponseEntity.ok(deduplicationService.getStats());
+    }
+
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = CacheConfig.nativeCache(cacheManager, name);
+            CacheStats stats = cache.stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("estimatedSize", cache.estimatedSize());
+            entry.put("hits", stats.hitCount());
+            entry.put("misses", stats.missCount());
+            entry.put("hitRate", stats.requestCount() == 0 ? null : stats.hitRate());
+            entry.put("evictions", stats.evictionCount());
+            entry.put("evictedWeight", stats.evictionWeight());
+            caches.put(name, entry);
+        }
+        return ResponseEntity.ok(caches);
+    }
+}
@@ -1,9 +1,11 @@
 package com.nixo.fde.slackbot.controller;
 
 import com.nixo.fde.slackbot.payload.SlackEventDto;
-import com.nixo.fde.slackbot.service.SlackBotEventService;
+import com.nixo.fde.slackbot.service.EventDeduplicationService;
+import com.nixo.fde.slackbot.service.EventJournalService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,13 +16,15 @@ import java.util.Map;
 @RequestMapping("/slack")
 @RequiredArgsConstructor
 public class SlackBotController {
-    private final SlackBotEventService slackBotEventService;
+    private final EventJournalService eventJournalService;
+    private final EventDeduplicationService deduplicationService;
 
     @PostMapping("/events")
     public ResponseEntity<?> handleSlackEvent(
             @RequestBody SlackEventDto eventDto,
             @RequestHeader(value = "X-Slack-Signature", required = false) String signature,
-            @RequestHeader(value = "X-Slack-Request-Timestamp", required = false) String timestamp
+            @RequestHeader(value = "X-Slack-Request-Timestamp", required = false) String timestamp,
+            @RequestHeader(value = "X-Slack-Retry-Num", required = false) String retryNum
     ) {
         log.info("Received Slack event: type={}", eventDto.getType());
 
@@ -38,8 +42,21 @@ public class SlackBotController {
 //                return ResponseEntity.ok().build();
 //            }
 
-            // Process the event asynchronously
-            slackBotEventService.processEventAsync(eventDto);
+            // Drop redeliveries of events we already accepted before they are journaled
+            if (!deduplicationService.tryAccept(eventDto)) {
+                log.info("Ignoring duplicate delivery of event {} (retry {})", eventDto.getEventId(), retryNum);
+                return ResponseEntity.ok().build();
+            }
+
+            // Persist to the journal; processing continues asynchronously from there
+            try {
+                eventJournalService.submit(eventDto);
+            } catch (Exception e) {
+                // Don't ack: Slack retries the event
+                deduplicationService.release(eventDto);
+                log.error("Failed to accept Slack event: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
 
             // Respond immediately to Slack (must respond within 3 seconds)
             return ResponseEntity.ok().build();
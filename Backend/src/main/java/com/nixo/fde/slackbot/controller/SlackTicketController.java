@@ -1,16 +1,26 @@
 package com.nixo.fde.slackbot.controller;
 
+import com.nixo.fde.slackbot.models.SlackMessage;
 import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.MessagePageDto;
 import com.nixo.fde.slackbot.payload.SlackMessageDto;
 import com.nixo.fde.slackbot.payload.SlackTicketDto;
 import com.nixo.fde.slackbot.payload.SlackTicketStatusDto;
+import com.nixo.fde.slackbot.payload.TicketFilter;
+import com.nixo.fde.slackbot.payload.TicketPageDto;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
 import com.nixo.fde.slackbot.repository.SlackTicketRepository;
 import com.nixo.fde.slackbot.service.SlackApiService;
+import com.nixo.fde.slackbot.service.TicketCounterService;
+import com.nixo.fde.slackbot.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,16 +30,59 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SlackTicketController {
     private final SlackTicketRepository slackTicketRepository;
+    private final SlackMessageRepository slackMessageRepository;
     private final SlackApiService slackApiService;
+    private final TicketCounterService ticketCounterService;
+
+    private static final int MAX_PAGE_SIZE = 200;
 
     @GetMapping
     public ResponseEntity<List<SlackTicketDto>> getAllTickets() {
         log.info("Fetching all tickets");
-        List<SlackTicketDto> tickets = slackTicketRepository.findAllByOrderByUpdatedAtDesc()
-                .stream()
-                .map(SlackTicketDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tickets);
+        return ResponseEntity.ok(toSummaryDtos(slackTicketRepository.findAllSummaries()));
+    }
+
+    /**
+     * Keyset-paginated listing, newest activity first, with optional filters. Pass the returned
+     * nextCursor back as cursor for the following page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<TicketPageDto> getTicketPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String channel,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        KeysetCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TicketFilter filter = TicketFilter.builder()
+                .status(status == null ? null : status.toUpperCase())
+                .category(category == null ? null : category.toUpperCase())
+                .channel(channel)
+                .from(from)
+                .to(to)
+                .build();
+
+        // One extra row tells us whether another page exists
+        List<Long> ids = slackTicketRepository.findPageIds(filter, after, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) ids = ids.subList(0, pageSize);
+
+        List<SlackTicketDto> items = ids.isEmpty() ? List.of() : toSummaryDtos(slackTicketRepository.findSummariesByIds(ids));
+        String nextCursor = null;
+        if (hasMore && !items.isEmpty()) {
+            SlackTicketDto last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new TicketPageDto(items, nextCursor));
     }
 
     @GetMapping("/{id}")
@@ -58,43 +111,92 @@ public class SlackTicketController {
             ticketDto.setChannel(prettyChannelName);
 
             // 3. Resolve User Names AND Channel Names in Conversation History
-            for (SlackMessageDto messageDto : ticketDto.getMessages()) {
-
-                // A. Resolve User ID to Name
-                if (messageDto.getUser() != null && messageDto.getUser().startsWith("U")) {
-                    String realName = slackApiService.getUserRealName(messageDto.getUser());
-                    messageDto.setUser(realName);
-                }
-
-                // B. Resolve Channel ID to Name
-                if (messageDto.getChannel() != null && messageDto.getChannel().startsWith("C")) {
-                    String prettyChannel = slackApiService.getChannelName(messageDto.getChannel());
-                    messageDto.setChannel(prettyChannel);
-                }
-            }
+            ticketDto.getMessages().forEach(this::resolveNames);
         }
 
         return ResponseEntity.ok(ticketDto);
     }
 
+    /**
+     * Ticket header only: the summary fields plus resolved customer and channel names, without
+     * loading any messages. Pair with /{id}/messages for the timeline.
+     */
+    @GetMapping("/{id}/header")
+    public ResponseEntity<SlackTicketDto> getTicketHeader(@PathVariable Long id) {
+        List<SlackTicketRepository.TicketSummary> summaries = slackTicketRepository.findSummariesByIds(List.of(id));
+        if (summaries.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        SlackTicketRepository.TicketSummary summary = summaries.get(0);
+        SlackTicketDto ticketDto = SlackTicketDto.fromSummary(summary);
+        if (summary.getFirstUser() != null) {
+            ticketDto.setCustomerName(slackApiService.getUserRealName(summary.getFirstUser()));
+            ticketDto.setChannel(slackApiService.getChannelName(summary.getFirstChannel()));
+        }
+        return ResponseEntity.ok(ticketDto);
+    }
+
+    /**
+     * One page of a ticket's messages by Slack message time, newest first by default
+     * ({@code order=asc} for oldest first). Pass nextCursor back as cursor for the next page.
+     */
+    @GetMapping("/{id}/messages")
+    public ResponseEntity<MessagePageDto> getTicketMessages(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "desc") String order
+    ) {
+        KeysetCursor after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!slackTicketRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells us whether another page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        boolean oldestFirst = "asc".equalsIgnoreCase(order);
+
+        List<SlackMessage> messages;
+        if (oldestFirst) {
+            messages = after == null
+                    ? slackMessageRepository.findTimelineOldestFirst(id, page)
+                    : slackMessageRepository.findTimelineOldestFirstAfter(id, after.time(), after.id(), page);
+        } else {
+            messages = after == null
+                    ? slackMessageRepository.findTimelineNewestFirst(id, page)
+                    : slackMessageRepository.findTimelineNewestFirstAfter(id, after.time(), after.id(), page);
+        }
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) messages = messages.subList(0, pageSize);
+
+        List<SlackMessageDto> items = messages.stream()
+                .map(SlackMessageDto::fromEntity)
+                .collect(Collectors.toList());
+        items.forEach(this::resolveNames);
+
+        String nextCursor = null;
+        if (hasMore) {
+            SlackMessage last = messages.get(messages.size() - 1);
+            nextCursor = new KeysetCursor(last.getSlackMessageTime(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new MessagePageDto(items, nextCursor));
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<List<SlackTicketDto>> getTicketsByStatus(@PathVariable String status) {
         log.info("Fetching tickets by status: {}", status);
-        List<SlackTicketDto> tickets = slackTicketRepository.findByStatus(status.toUpperCase())
-                .stream()
-                .map(SlackTicketDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tickets);
+        return ResponseEntity.ok(toSummaryDtos(slackTicketRepository.findSummariesByStatus(status.toUpperCase())));
     }
 
     @GetMapping("/category/{category}")
     public ResponseEntity<List<SlackTicketDto>> getTicketsByCategory(@PathVariable String category) {
         log.info("Fetching tickets by category: {}", category);
-        List<SlackTicketDto> tickets = slackTicketRepository.findByCategory(category.toUpperCase())
-                .stream()
-                .map(SlackTicketDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tickets);
+        return ResponseEntity.ok(toSummaryDtos(slackTicketRepository.findSummariesByCategory(category.toUpperCase())));
     }
 
     @PatchMapping("/{id}/status")
@@ -103,20 +205,49 @@ public class SlackTicketController {
             @RequestParam String status
     ) {
         log.info("Updating ticket {} status to {}", id, status);
-        return slackTicketRepository.findById(id)
-                .map(ticket -> {
-                    ticket.setStatus(status.toUpperCase());
-                    SlackTicket saved = slackTicketRepository.save(ticket);
-                    return ResponseEntity.ok(SlackTicketDto.fromEntity(saved));
-                })
+        // Goes through the counter service so the per-category open count follows the change
+        return ticketCounterService.updateStatus(id, status.toUpperCase())
+                .map(saved -> ResponseEntity.ok(SlackTicketDto.fromEntity(saved)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/stats")
     public ResponseEntity<SlackTicketStatusDto> getStats() {
-        long openCount = slackTicketRepository.countOpenTickets();
-        long totalCount = slackTicketRepository.count();
+        return ResponseEntity.ok(ticketCounterService.getStats());
+    }
+
+    // ================= HELPER METHODS =================
 
-        return ResponseEntity.ok(new SlackTicketStatusDto(totalCount, openCount));
+    private static KeysetCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+    }
+
+    private void resolveNames(SlackMessageDto messageDto) {
+        // A. Resolve User ID to Name
+        if (messageDto.getUser() != null && messageDto.getUser().startsWith("U")) {
+            messageDto.setUser(slackApiService.getUserRealName(messageDto.getUser()));
+        }
+
+        // B. Resolve Channel ID to Name
+        if (messageDto.getChannel() != null && messageDto.getChannel().startsWith("C")) {
+            messageDto.setChannel(slackApiService.getChannelName(messageDto.getChannel()));
+        }
+    }
+
+    /**
+     * Summary rows carry Slack IDs; swap in names already cached from earlier lookups. Unknown
+     * users fall back to the frontend's "Customer" and unknown channels stay as IDs, so listing
+     * never waits on the Slack API.
+     */
+    private List<SlackTicketDto> toSummaryDtos(List<SlackTicketRepository.TicketSummary> summaries) {
+        return summaries.stream()
+                .map(summary -> {
+                    SlackTicketDto dto = SlackTicketDto.fromSummary(summary);
+                    dto.setCustomerName(slackApiService.getCachedUserRealName(summary.getFirstUser()));
+                    String channelName = slackApiService.getCachedChannelName(summary.getFirstChannel());
+                    dto.setChannel(channelName != null ? channelName : summary.getFirstChannel());
+                    return dto;
+                })
+                .collect(Collectors.toList());
     }
 }
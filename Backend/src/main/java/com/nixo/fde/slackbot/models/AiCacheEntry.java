@@ -0,0 +1,42 @@
+package com.nixo.fde.slackbot.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted AI result (embedding or classification), keyed by the SHA-256 of kind, model and
+ * normalised text. See PersistentAiCacheService.
+ */
+@Entity
+@Table(name = "ai_cache_entries", indexes = {
+        @Index(name = "idx_ai_cache_created_at", columnList = "createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AiCacheEntry {
+
+    // Hex SHA-256
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    // EMBEDDING or CLASSIFICATION
+    @Column(nullable = false, length = 20)
+    private String kind;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
 @Table(name = "slack_messages", indexes = {
         @Index(name = "idx_slack_ts", columnList = "slackTimestamp"),
         @Index(name = "idx_thread_ts", columnList = "threadTs"),
-        @Index(name = "idx_channel", columnList = "channel")
+        @Index(name = "idx_channel", columnList = "channel"),
+        // Channel filter of the paginated ticket listing (EXISTS per ticket)
+        @Index(name = "idx_channel_ticket", columnList = "channel, ticket_id"),
+        // Ticket message timeline pages
+        @Index(name = "idx_ticket_message_time", columnList = "ticket_id, slackMessageTime, id")
 })
 @Data
 @NoArgsConstructor
@@ -21,8 +25,10 @@ import java.time.LocalDateTime;
 @Builder
 public class SlackMessage {
 
+    // Pooled sequence (see SlackTicket) so message inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slack_messages_seq")
+    @SequenceGenerator(name = "slack_messages_seq", sequenceName = "slack_messages_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,9 +53,14 @@ public class SlackMessage {
     @Column(length = 50)
     private String channelType;
 
+    // Legacy JSON embedding; new rows use embeddingData and old rows are migrated at startup
     @Column(columnDefinition = "TEXT")
     private String embedding;
 
+    // Binary embedding, see EmbeddingCodec for the layout
+    @Column(columnDefinition = "bytea")
+    private byte[] embeddingData;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
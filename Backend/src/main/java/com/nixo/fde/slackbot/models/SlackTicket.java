@@ -6,22 +6,29 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "slack_tickets")
+@Table(name = "slack_tickets", indexes = {
+        // Keyset pagination on (updated_at, id), optionally narrowed by status and/or category
+        @Index(name = "idx_tickets_updated_id", columnList = "updatedAt DESC, id DESC"),
+        @Index(name = "idx_tickets_status_updated_id", columnList = "status, updatedAt DESC, id DESC"),
+        @Index(name = "idx_tickets_category_updated_id", columnList = "category, updatedAt DESC, id DESC"),
+        @Index(name = "idx_tickets_status_category_updated_id", columnList = "status, category, updatedAt DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class SlackTicket {
 
+    // Pooled sequence: ids are assigned without an insert round trip, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slack_tickets_seq")
+    @SequenceGenerator(name = "slack_tickets_seq", sequenceName = "slack_tickets_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 500)
@@ -34,16 +41,34 @@ public class SlackTicket {
     @Builder.Default
     private String status = "OPEN";
 
-    @OneToMany(mappedBy = "ticket", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Lazy: list views use SlackTicketRepository.TicketSummary instead of loading messages
+    @OneToMany(mappedBy = "ticket", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private List<SlackMessage> messages = new ArrayList<>();
 
+    // Denormalised from slack_messages so reads never aggregate messages. message_count and
+    // last_message_at are only changed by SlackTicketRepository.recordMessages (atomic increments);
+    // first_user/first_channel are set once when the ticket is created.
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    @Builder.Default
+    private int messageCount = 0;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(length = 50, updatable = false)
+    private String firstUser;
+
+    @Column(length = 50, updatable = false)
+    private String firstChannel;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @UpdateTimestamp
-    @Column(nullable = false)
+    // Set on insert, then only moved by SlackTicketRepository.touch / touchAll (written behind by
+    // TicketTouchBuffer for message activity), so mirroring it on a loaded entity is not an update
+    @Column(nullable = false, updatable = false)
     private LocalDateTime updatedAt;
 
     public void addMessage(SlackMessage message) {
@@ -55,8 +80,4 @@ public class SlackTicket {
         messages.remove(message);
         message.setTicket(null);
     }
-
-    public int getMessageCount() {
-        return messages != null ? messages.size() : 0;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.nixo.fde.slackbot.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Open/total ticket counts per category, kept current by TicketCounterService so the dashboard
+ * stats never count slack_tickets.
+ */
+@Entity
+@Table(name = "ticket_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketCounter {
+
+    @Id
+    @Column(length = 50)
+    private String category;
+
+    @Column(nullable = false)
+    private long openCount;
+
+    @Column(nullable = false)
+    private long totalCount;
+}
@@ -0,0 +1,68 @@
+package com.nixo.fde.slackbot.payload;
+
+import com.nixo.fde.slackbot.utils.VectorMath;
+
+/**
+ * Immutable embedding vector backed by a primitive float array, with its L2 norm computed once.
+ * A 1536-dim vector is ~6 KB here versus ~40 KB as a List&lt;Double&gt;.
+ */
+public final class Embedding {
+    private static final Embedding EMPTY = new Embedding(new float[0]);
+
+    private final float[] values;
+    private final float norm;
+
+    private Embedding(float[] values) {
+        this.values = values;
+        double sum = 0.0;
+        for (float v : values) sum += v * v;
+        this.norm = (float) Math.sqrt(sum);
+    }
+
+    /**
+     * Wraps the array without copying; callers must not modify it afterwards.
+     */
+    public static Embedding of(float[] values) {
+        return values == null || values.length == 0 ? EMPTY : new Embedding(values);
+    }
+
+    public static Embedding empty() {
+        return EMPTY;
+    }
+
+    /**
+     * The backing array. Exposed without copying for the hot path; treat it as read-only.
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    public int getDimensions() {
+        return values.length;
+    }
+
+    public float getNorm() {
+        return norm;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    /**
+     * Returns a new unit-length copy of this vector (all zeros if the norm is zero).
+     */
+    public float[] normalised() {
+        float[] result = new float[values.length];
+        if (norm == 0.0f) return result;
+        float inverse = 1.0f / norm;
+        for (int i = 0; i < values.length; i++) result[i] = values[i] * inverse;
+        return result;
+    }
+
+    public double cosineSimilarity(Embedding other) {
+        if (other == null || values.length != other.values.length) return 0.0;
+        if (norm == 0.0f || other.norm == 0.0f) return 0.0;
+        return VectorMath.dot(values, other.values) / (norm * other.norm);
+    }
+}
@@ -0,0 +1,21 @@
+package com.nixo.fde.slackbot.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a ticket's message timeline. {@code nextCursor} is null on the last page;
+ * otherwise pass it back as {@code cursor} to continue after the last item.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessagePageDto {
+    private List<SlackMessageDto> items;
+    private String nextCursor;
+}
@@ -1,6 +1,7 @@
 package com.nixo.fde.slackbot.payload;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 @Data
@@ -14,6 +15,7 @@ public class SlackEventDto {
 
     private String type;
 
+    @JsonProperty("event_id")
     private String eventId;
 
     private Long eventTime;
@@ -1,6 +1,7 @@
 package com.nixo.fde.slackbot.payload;
 
 import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.repository.SlackTicketRepository;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,7 @@ public class SlackTicketDto {
     private String category;
     private String status;
     private int messageCount;
+    private LocalDateTime lastMessageAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<SlackMessageDto> messages;
@@ -33,11 +35,29 @@ public class SlackTicketDto {
                 .category(ticket.getCategory())
                 .status(ticket.getStatus())
                 .messageCount(ticket.getMessageCount())
+                .lastMessageAt(ticket.getLastMessageAt())
                 .createdAt(ticket.getCreatedAt())
                 .updatedAt(ticket.getUpdatedAt())
                 .build();
     }
 
+    /**
+     * List-view DTO from the summary projection; no messages are loaded. Customer and channel
+     * names are left for the caller to resolve from the summary's Slack IDs.
+     */
+    public static SlackTicketDto fromSummary(SlackTicketRepository.TicketSummary summary) {
+        return SlackTicketDto.builder()
+                .id(summary.getId())
+                .title(summary.getTitle())
+                .category(summary.getCategory())
+                .status(summary.getStatus())
+                .messageCount(summary.getMessageCount() == null ? 0 : summary.getMessageCount())
+                .lastMessageAt(summary.getLastMessageAt())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
     public static SlackTicketDto fromEntityWithMessages(SlackTicket ticket) {
         SlackTicketDto dto = fromEntity(ticket);
         dto.setMessages(
@@ -0,0 +1,25 @@
+package com.nixo.fde.slackbot.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for the paginated ticket listing; null fields are not applied.
+ * {@code from}/{@code to} bound the ticket's last activity ({@code updatedAt}), and
+ * {@code channel} matches tickets with at least one message in that Slack channel.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketFilter {
+    private String status;
+    private String category;
+    private String channel;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
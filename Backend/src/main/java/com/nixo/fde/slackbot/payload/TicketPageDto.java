@@ -0,0 +1,21 @@
+package com.nixo.fde.slackbot.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the ticket listing, newest activity first. {@code nextCursor} is null on the last
+ * page; otherwise pass it back as {@code cursor} to continue after the last item.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketPageDto {
+    private List<SlackTicketDto> items;
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.models.AiCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AiCacheEntryRepository extends JpaRepository<AiCacheEntry, String>, AiCacheEntryRepositoryCustom {
+
+    @Query("SELECT e.payload FROM AiCacheEntry e WHERE e.cacheKey = :key")
+    Optional<byte[]> findPayload(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM AiCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
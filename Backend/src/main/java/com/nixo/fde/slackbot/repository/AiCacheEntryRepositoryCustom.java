@@ -0,0 +1,15 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.models.AiCacheEntry;
+
+import java.util.List;
+
+public interface AiCacheEntryRepositoryCustom {
+
+    /**
+     * Inserts all entries in one multi-row INSERT ... ON CONFLICT DO NOTHING; keys already stored
+     * (by a concurrent writer or another instance) are skipped, not errors. Returns the number of
+     * rows inserted. Must run inside a transaction.
+     */
+    int insertAllIfAbsent(List<AiCacheEntry> entries);
+}
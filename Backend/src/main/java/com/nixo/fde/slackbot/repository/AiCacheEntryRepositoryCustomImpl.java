@@ -0,0 +1,46 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.models.AiCacheEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AiCacheEntryRepositoryCustomImpl implements AiCacheEntryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertAllIfAbsent(List<AiCacheEntry> entries) {
+        // One row per key: the same text may have been queued twice before a flush
+        Map<String, AiCacheEntry> byKey = new LinkedHashMap<>();
+        for (AiCacheEntry entry : entries) {
+            byKey.putIfAbsent(entry.getCacheKey(), entry);
+        }
+        if (byKey.isEmpty()) return 0;
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ai_cache_entries (cache_key, kind, model, payload, created_at) VALUES ");
+        int position = 0;
+        for (int i = 0; i < byKey.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(?").append(++position).append(", ?").append(++position).append(", ?").append(++position)
+                    .append(", ?").append(++position).append(", ?").append(++position).append(')');
+        }
+        sql.append(" ON CONFLICT (cache_key) DO NOTHING");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 0;
+        for (AiCacheEntry entry : byKey.values()) {
+            query.setParameter(++position, entry.getCacheKey());
+            query.setParameter(++position, entry.getKind());
+            query.setParameter(++position, entry.getModel());
+            query.setParameter(++position, entry.getPayload());
+            query.setParameter(++position, entry.getCreatedAt());
+        }
+        return query.executeUpdate();
+    }
+}
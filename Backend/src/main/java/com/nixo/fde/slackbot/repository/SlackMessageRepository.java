@@ -1,7 +1,10 @@
 package com.nixo.fde.slackbot.repository;
 
 import com.nixo.fde.slackbot.models.SlackMessage;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,17 +20,111 @@ public interface SlackMessageRepository extends JpaRepository<SlackMessage, Long
 
     boolean existsBySlackTimestamp(String slackTimestamp);
 
+    @Query("SELECT m.slackTimestamp FROM SlackMessage m WHERE m.slackMessageTime >= :since")
+    List<String> findSlackTimestampsSince(@Param("since") LocalDateTime since);
+
     List<SlackMessage> findByThreadTs(String threadTs);
 
     List<SlackMessage> findByTicketId(Long ticketId);
 
-    @Query("SELECT m FROM SlackMessage m WHERE m.slackMessageTime >= :since AND m.embedding IS NOT NULL")
+    @Query("SELECT m FROM SlackMessage m JOIN FETCH m.ticket WHERE m.slackMessageTime >= :since AND (m.embeddingData IS NOT NULL OR m.embedding IS NOT NULL)")
     List<SlackMessage> findRecentMessagesWithEmbeddings(@Param("since") LocalDateTime since);
 
+    // Ticket timeline pages, keyset on (slackMessageTime, id); served by idx_ticket_message_time
+    @Query("SELECT m FROM SlackMessage m WHERE m.ticket.id = :ticketId ORDER BY m.slackMessageTime DESC, m.id DESC")
+    List<SlackMessage> findTimelineNewestFirst(@Param("ticketId") Long ticketId, Pageable pageable);
+
+    @Query("SELECT m FROM SlackMessage m WHERE m.ticket.id = :ticketId " +
+            "AND (m.slackMessageTime < :time OR (m.slackMessageTime = :time AND m.id < :id)) " +
+            "ORDER BY m.slackMessageTime DESC, m.id DESC")
+    List<SlackMessage> findTimelineNewestFirstAfter(@Param("ticketId") Long ticketId, @Param("time") LocalDateTime time,
+                                                    @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM SlackMessage m WHERE m.ticket.id = :ticketId ORDER BY m.slackMessageTime ASC, m.id ASC")
+    List<SlackMessage> findTimelineOldestFirst(@Param("ticketId") Long ticketId, Pageable pageable);
+
+    @Query("SELECT m FROM SlackMessage m WHERE m.ticket.id = :ticketId " +
+            "AND (m.slackMessageTime > :time OR (m.slackMessageTime = :time AND m.id > :id)) " +
+            "ORDER BY m.slackMessageTime ASC, m.id ASC")
+    List<SlackMessage> findTimelineOldestFirstAfter(@Param("ticketId") Long ticketId, @Param("time") LocalDateTime time,
+                                                    @Param("id") Long id, Pageable pageable);
+
+    // Same text (trimmed, case-insensitive) already on the ticket; checked in SQL so the ticket's messages are never loaded
+    @Query("SELECT COUNT(m) > 0 FROM SlackMessage m WHERE m.ticket.id = :ticketId AND LOWER(TRIM(m.slackText)) = LOWER(TRIM(:text))")
+    boolean existsSameTextOnTicket(@Param("ticketId") Long ticketId, @Param("text") String text);
+
     @Query("SELECT COUNT(m) FROM SlackMessage m WHERE m.ticket.id = :ticketId")
     int countByTicketId(@Param("ticketId") Long ticketId);
 
     @Query("SELECT m FROM SlackMessage m JOIN FETCH m.ticket WHERE m.slackTimestamp = :ts")
     List<SlackMessage> findBySlackTimestampWithTicket(@Param("ts") String ts);
+
+    @Query("SELECT m.slackTimestamp, t.id, t.category, t.title FROM SlackMessage m JOIN m.ticket t WHERE m.slackMessageTime >= :since ORDER BY m.slackMessageTime DESC")
+    List<Object[]> findRecentThreadRoutes(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT m.id, m.embedding FROM SlackMessage m WHERE m.embedding IS NOT NULL AND m.embeddingData IS NULL")
+    List<Object[]> findLegacyJsonEmbeddings(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SlackMessage m SET m.embeddingData = :data, m.embedding = NULL WHERE m.id = :id")
+    int replaceJsonEmbedding(@Param("id") Long id, @Param("data") byte[] data);
+
+    // ---- pgvector backend (grouping.backend=pgvector); embedding_vec is managed outside JPA ----
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE slack_messages SET embedding_vec = CAST(:vector AS vector) WHERE id = :id", nativeQuery = true)
+    int updateEmbeddingVector(@Param("id") Long id, @Param("vector") String vector);
+
+    // Keyset page by id, so rows the backfill skips never hide the rows after them
+    @Query(value = "SELECT id, embedding_data FROM slack_messages WHERE embedding_data IS NOT NULL AND embedding_vec IS NULL " +
+            "AND id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findMissingEmbeddingVectors(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query(value = "SELECT extversion FROM pg_extension WHERE extname = 'vector'", nativeQuery = true)
+    String findPgvectorVersion();
+
+    /**
+     * Transaction-local {@code SET LOCAL}, with the value bound as a parameter.
+     */
+    @Query(value = "SELECT set_config(:name, :value, true)", nativeQuery = true)
+    String setLocalSetting(@Param("name") String name, @Param("value") String value);
+
+    /**
+     * Nearest messages by cosine distance (served by the HNSW index on embedding_vec),
+     * then collapsed to the best score per ticket. The category and time predicates are applied
+     * to the index scan's output, so callers must raise hnsw.ef_search (and enable
+     * hnsw.iterative_scan where available) in the same transaction; see PgVectorTicketSearch.
+     */
+    @Query(value = """
+            SELECT nearest.ticket_id AS "ticketId", MAX(nearest.similarity) AS "similarity"
+            FROM (
+                SELECT m.ticket_id, 1 - (m.embedding_vec <=> CAST(:vector AS vector)) AS similarity
+                FROM slack_messages m
+                JOIN slack_tickets t ON t.id = m.ticket_id
+                WHERE t.category = :category
+                  AND m.slack_message_time >= :since
+                  AND m.embedding_vec IS NOT NULL
+                ORDER BY m.embedding_vec <=> CAST(:vector AS vector)
+                LIMIT :candidates
+            ) nearest
+            GROUP BY nearest.ticket_id
+            ORDER BY "similarity" DESC
+            LIMIT :k
+            """, nativeQuery = true)
+    List<TicketSimilarity> findNearestTickets(
+            @Param("vector") String vector,
+            @Param("category") String category,
+            @Param("since") LocalDateTime since,
+            @Param("candidates") int candidates,
+            @Param("k") int k
+    );
+
+    interface TicketSimilarity {
+        Long getTicketId();
+
+        Double getSimilarity();
+    }
     
 }
\ No newline at end of file
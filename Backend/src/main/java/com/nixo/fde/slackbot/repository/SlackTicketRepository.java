@@ -1,16 +1,33 @@
 package com.nixo.fde.slackbot.repository;
 
 import com.nixo.fde.slackbot.models.SlackTicket;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SlackTicketRepository extends JpaRepository<SlackTicket, Long> {
+public interface SlackTicketRepository extends JpaRepository<SlackTicket, Long>, SlackTicketRepositoryCustom {
+
+    /**
+     * Ticket columns for list views, including the denormalised message count and first
+     * message's user and channel. Callers append the WHERE / ORDER BY.
+     */
+    String TICKET_SUMMARY_SELECT = """
+            SELECT t.id AS "id", t.title AS "title", t.category AS "category", t.status AS "status",
+                   t.created_at AS "createdAt", t.updated_at AS "updatedAt",
+                   t.message_count AS "messageCount", t.last_message_at AS "lastMessageAt",
+                   t.first_user AS "firstUser", t.first_channel AS "firstChannel"
+            FROM slack_tickets t
+            """;
 
     List<SlackTicket> findAllByOrderByUpdatedAtDesc();
 
@@ -21,9 +38,96 @@ public interface SlackTicketRepository extends JpaRepository<SlackTicket, Long>
     @Query("SELECT t FROM SlackTicket t WHERE t.updatedAt >= :since ORDER BY t.updatedAt DESC")
     List<SlackTicket> findRecentTickets(@Param("since") LocalDateTime since);
 
+    /**
+     * Loads the ticket with a row lock (SELECT ... FOR UPDATE) held until the transaction ends,
+     * so concurrent read-modify-write status changes are serialised.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM SlackTicket t WHERE t.id = :id")
+    Optional<SlackTicket> findByIdForUpdate(@Param("id") Long id);
+
     @Query("SELECT t FROM SlackTicket t LEFT JOIN FETCH t.messages WHERE t.id = :id")
     SlackTicket findByIdWithMessages(@Param("id") Long id);
 
     @Query("SELECT COUNT(t) FROM SlackTicket t WHERE t.status = 'OPEN'")
     long countOpenTickets();
+
+    /**
+     * Adds {@code count} messages to the ticket's denormalised counters in one atomic update, so
+     * concurrent writers to the same ticket never lose an increment. Returns the ticket row as
+     * updated (UPDATE ... RETURNING), so callers get its current state without a second query or
+     * loading the entity. Not {@code @Modifying}: the statement returns rows.
+     */
+    @Transactional
+    @Query(value = "UPDATE slack_tickets t SET message_count = t.message_count + :count, " +
+            "last_message_at = GREATEST(COALESCE(t.last_message_at, :lastMessageAt), :lastMessageAt) WHERE t.id = :id " +
+            "RETURNING t.id AS \"id\", t.title AS \"title\", t.category AS \"category\", t.status AS \"status\", " +
+            "t.created_at AS \"createdAt\", t.updated_at AS \"updatedAt\", " +
+            "t.message_count AS \"messageCount\", t.last_message_at AS \"lastMessageAt\", " +
+            "t.first_user AS \"firstUser\", t.first_channel AS \"firstChannel\"",
+            nativeQuery = true)
+    TicketSummary recordMessages(@Param("id") Long id, @Param("count") int count, @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * Moves updated_at forward to {@code updatedAt} (never backwards, so a later status change
+     * is not overwritten). Used by {@code TicketTouchBuffer} for coalesced activity bumps.
+     */
+    @Modifying
+    @Query(value = "UPDATE slack_tickets SET updated_at = GREATEST(updated_at, :updatedAt) WHERE id = :id", nativeQuery = true)
+    int touch(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Fills the denormalised columns of tickets created before they existed (first_user is set
+     * for every ticket created since). Returns the number of tickets updated.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE slack_tickets t
+            SET message_count = s.message_count, last_message_at = s.last_message_at,
+                first_user = s.first_user, first_channel = s.first_channel
+            FROM (
+                SELECT m.ticket_id, COUNT(*) AS message_count, MAX(m.slack_message_time) AS last_message_at,
+                       (ARRAY_AGG(m.slack_user ORDER BY m.slack_message_time, m.id))[1] AS first_user,
+                       (ARRAY_AGG(m.channel ORDER BY m.slack_message_time, m.id))[1] AS first_channel
+                FROM slack_messages m
+                WHERE m.ticket_id IN (SELECT id FROM slack_tickets WHERE first_user IS NULL)
+                GROUP BY m.ticket_id
+            ) s
+            WHERE s.ticket_id = t.id
+            """, nativeQuery = true)
+    int backfillDenormalisedColumns();
+
+    @Query(value = TICKET_SUMMARY_SELECT + "ORDER BY t.updated_at DESC", nativeQuery = true)
+    List<TicketSummary> findAllSummaries();
+
+    @Query(value = TICKET_SUMMARY_SELECT + "WHERE t.status = :status ORDER BY t.updated_at DESC", nativeQuery = true)
+    List<TicketSummary> findSummariesByStatus(@Param("status") String status);
+
+    @Query(value = TICKET_SUMMARY_SELECT + "WHERE t.category = :category ORDER BY t.updated_at DESC", nativeQuery = true)
+    List<TicketSummary> findSummariesByCategory(@Param("category") String category);
+
+    @Query(value = TICKET_SUMMARY_SELECT + "WHERE t.id IN (:ids) ORDER BY t.updated_at DESC, t.id DESC", nativeQuery = true)
+    List<TicketSummary> findSummariesByIds(@Param("ids") List<Long> ids);
+
+    interface TicketSummary {
+        Long getId();
+
+        String getTitle();
+
+        String getCategory();
+
+        String getStatus();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        Integer getMessageCount();
+
+        LocalDateTime getLastMessageAt();
+
+        String getFirstUser();
+
+        String getFirstChannel();
+    }
 }
\ No newline at end of file
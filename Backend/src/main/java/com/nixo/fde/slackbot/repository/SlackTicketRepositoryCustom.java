@@ -0,0 +1,25 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.payload.TicketFilter;
+import com.nixo.fde.slackbot.utils.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface SlackTicketRepositoryCustom {
+
+    /**
+     * Ids of up to {@code limit} tickets matching {@code filter}, ordered by
+     * {@code (updatedAt, id)} descending and strictly after {@code after} (null for the first
+     * page). Served by the (updated_at, id) composite indexes, so cost does not grow with depth.
+     */
+    List<Long> findPageIds(TicketFilter filter, KeysetCursor after, int limit);
+
+    /**
+     * Moves updated_at forward for every ticket in {@code touches} (never backwards, like
+     * {@code touch}) in a single UPDATE ... FROM (VALUES ...) statement. Returns the number of
+     * tickets updated. Must run inside a transaction.
+     */
+    int touchAll(Map<Long, LocalDateTime> touches);
+}
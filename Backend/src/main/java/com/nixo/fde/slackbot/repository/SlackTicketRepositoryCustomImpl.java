@@ -0,0 +1,92 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.models.SlackMessage;
+import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.TicketFilter;
+import com.nixo.fde.slackbot.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SlackTicketRepositoryCustomImpl implements SlackTicketRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findPageIds(TicketFilter filter, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<SlackTicket> ticket = query.from(SlackTicket.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(ticket.get("status"), filter.getStatus()));
+        }
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(ticket.get("category"), filter.getCategory()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(ticket.<LocalDateTime>get("updatedAt"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(ticket.<LocalDateTime>get("updatedAt"), filter.getTo()));
+        }
+        if (filter.getChannel() != null) {
+            Subquery<Long> inChannel = query.subquery(Long.class);
+            Root<SlackMessage> message = inChannel.from(SlackMessage.class);
+            inChannel.select(message.get("id")).where(
+                    cb.equal(message.get("ticket"), ticket),
+                    cb.equal(message.get("channel"), filter.getChannel()));
+            predicates.add(cb.exists(inChannel));
+        }
+        if (after != null) {
+            // (updatedAt, id) < (after.time, after.id)
+            predicates.add(cb.or(
+                    cb.lessThan(ticket.<LocalDateTime>get("updatedAt"), after.time()),
+                    cb.and(
+                            cb.equal(ticket.get("updatedAt"), after.time()),
+                            cb.lessThan(ticket.<Long>get("id"), after.id()))));
+        }
+
+        query.select(ticket.get("id"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(ticket.get("updatedAt")), cb.desc(ticket.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int touchAll(Map<Long, LocalDateTime> touches) {
+        if (touches.isEmpty()) return 0;
+
+        StringBuilder sql = new StringBuilder(
+                "UPDATE slack_tickets t SET updated_at = GREATEST(t.updated_at, v.updated_at) FROM (VALUES ");
+        int position = 0;
+        for (int i = 0; i < touches.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(CAST(?").append(++position).append(" AS bigint), CAST(?").append(++position).append(" AS timestamp))");
+        }
+        sql.append(") AS v(id, updated_at) WHERE t.id = v.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        position = 0;
+        for (Map.Entry<Long, LocalDateTime> touch : touches.entrySet()) {
+            query.setParameter(++position, touch.getKey());
+            query.setParameter(++position, touch.getValue());
+        }
+        return query.executeUpdate();
+    }
+}
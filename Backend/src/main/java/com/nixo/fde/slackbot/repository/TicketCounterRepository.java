@@ -0,0 +1,38 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.models.TicketCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TicketCounterRepository extends JpaRepository<TicketCounter, String> {
+
+    /**
+     * Adds the deltas to the category's row, creating it if needed, in one atomic statement.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ticket_counters (category, open_count, total_count) VALUES (:category, :openDelta, :totalDelta) " +
+            "ON CONFLICT (category) DO UPDATE SET open_count = ticket_counters.open_count + EXCLUDED.open_count, " +
+            "total_count = ticket_counters.total_count + EXCLUDED.total_count",
+            nativeQuery = true)
+    int add(@Param("category") String category, @Param("openDelta") long openDelta, @Param("totalDelta") long totalDelta);
+
+    /**
+     * Recomputes every row from slack_tickets (used when the table is first created).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ticket_counters (category, open_count, total_count) " +
+            "SELECT category, COUNT(*) FILTER (WHERE status = 'OPEN'), COUNT(*) FROM slack_tickets GROUP BY category " +
+            "ON CONFLICT (category) DO UPDATE SET open_count = EXCLUDED.open_count, total_count = EXCLUDED.total_count",
+            nativeQuery = true)
+    int rebuild();
+
+    @Query("SELECT COALESCE(SUM(c.openCount), 0) FROM TicketCounter c")
+    long sumOpen();
+
+    @Query("SELECT COALESCE(SUM(c.totalCount), 0) FROM TicketCounter c")
+    long sumTotal();
+}
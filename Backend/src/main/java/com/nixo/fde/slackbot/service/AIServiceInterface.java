@@ -1,6 +1,7 @@
 package com.nixo.fde.slackbot.service;
 
 import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
 
 import java.util.List;
 
@@ -10,8 +11,30 @@ public interface AIServiceInterface {
      */
     ClassificationResultDto classifyMessage(String messageText);
 
+    /**
+     * Classify several messages with one prompt. Returns one result per input, in order;
+     * items the batched response could not cover are classified individually.
+     */
+    List<ClassificationResultDto> classifyMessages(List<String> messageTexts);
+
     /**
      * Generate embedding vector for semantic similarity
      */
-    List<Double> generateEmbedding(String text);
+    Embedding generateEmbedding(String text);
+
+    /**
+     * Generate embeddings for several texts in one provider call.
+     * Returns one entry per input, in order; failed entries are empty.
+     */
+    List<Embedding> generateEmbeddings(List<String> texts);
+
+    /**
+     * Model used for classification (part of persistent cache keys)
+     */
+    String getClassificationModel();
+
+    /**
+     * Model used for embeddings (part of persistent cache keys)
+     */
+    String getEmbeddingModel();
 }
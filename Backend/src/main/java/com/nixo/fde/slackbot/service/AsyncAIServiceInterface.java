@@ -0,0 +1,23 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variants of {@link AIServiceInterface}. Calls are enqueued on the shared HTTP
+ * dispatcher, so no thread waits while a provider request is in flight. Futures complete with
+ * the same fallbacks as the blocking methods (irrelevant / empty) rather than exceptionally.
+ */
+public interface AsyncAIServiceInterface {
+
+    CompletableFuture<ClassificationResultDto> classifyMessageAsync(String messageText);
+
+    CompletableFuture<List<ClassificationResultDto>> classifyMessagesAsync(List<String> messageTexts);
+
+    CompletableFuture<Embedding> generateEmbeddingAsync(String text);
+
+    CompletableFuture<List<Embedding>> generateEmbeddingsAsync(List<String> texts);
+}
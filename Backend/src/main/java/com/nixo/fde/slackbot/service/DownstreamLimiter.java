@@ -0,0 +1,107 @@
+package com.nixo.fde.slackbot.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-downstream concurrency limits for the event pipeline.
+ * <p>
+ * With virtual threads the executor no longer bounds how many events are in flight, so each
+ * blocking call to a shared resource takes a permit here instead. Permits should track the real
+ * capacity of the downstream (e.g. DB permits = Hikari pool size), so waiting happens on a cheap
+ * semaphore rather than inside the connection pool or the provider's rate limiter.
+ */
+@Slf4j
+@Component
+public class DownstreamLimiter {
+
+    public enum Downstream { AI, DB, SLACK }
+
+    @Value("${pipeline.limits.ai:32}")
+    private int aiPermits;
+
+    @Value("${pipeline.limits.db:10}")
+    private int dbPermits;
+
+    @Value("${pipeline.limits.slack:8}")
+    private int slackPermits;
+
+    @Value("${pipeline.limits.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    private final Map<Downstream, Semaphore> semaphores = new EnumMap<>(Downstream.class);
+
+    @PostConstruct
+    public void init() {
+        semaphores.put(Downstream.AI, new Semaphore(aiPermits, true));
+        semaphores.put(Downstream.DB, new Semaphore(dbPermits, true));
+        semaphores.put(Downstream.SLACK, new Semaphore(slackPermits, true));
+        log.info("Downstream limits: ai={}, db={}, slack={}", aiPermits, dbPermits, slackPermits);
+    }
+
+    /**
+     * Runs the call while holding a permit for the downstream. Throws IllegalStateException if no
+     * permit frees up within the acquire timeout, so a stuck downstream sheds load instead of
+     * piling up waiters indefinitely.
+     */
+    public <T> T call(Downstream downstream, Supplier<T> call) {
+        Semaphore semaphore = acquire(downstream);
+        try {
+            return call.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Starts an asynchronous call while holding a permit, and releases the permit when the
+     * returned future completes. The calling thread only waits if the downstream is saturated,
+     * never for the call itself. Same timeout behaviour as {@link #call}.
+     */
+    public <T> CompletableFuture<T> callAsync(Downstream downstream, Supplier<CompletableFuture<T>> call) {
+        Semaphore semaphore = acquire(downstream);
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> semaphore.release());
+    }
+
+    public void run(Downstream downstream, Runnable call) {
+        call(downstream, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public int getAvailablePermits(Downstream downstream) {
+        return semaphores.get(downstream).availablePermits();
+    }
+
+    // ================= HELPER METHODS =================
+
+    private Semaphore acquire(Downstream downstream) {
+        Semaphore semaphore = semaphores.get(downstream);
+        try {
+            if (!semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timed out waiting for " + downstream + " permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + downstream + " permit", e);
+        }
+        return semaphore;
+    }
+}
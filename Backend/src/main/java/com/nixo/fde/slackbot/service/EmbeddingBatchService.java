@@ -0,0 +1,102 @@
+package com.nixo.fde.slackbot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.nixo.fde.slackbot.config.CacheConfig;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.utils.MicroBatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Front door for embedding requests from the event workers.
+ * <p>
+ * Concurrent requests arriving within a few milliseconds are coalesced into one
+ * {@link AsyncAIServiceInterface#generateEmbeddingsAsync} call. Batches are dispatched without
+ * blocking; concurrent provider calls are capped by the shared HTTP client's dispatcher limits.
+ * <p>
+ * Lookups go through the in-heap {@code embeddings} cache, then the
+ * {@link PersistentAiCacheService} table, before reaching the provider. Fresh embeddings are
+ * written to both (the table write-behind).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmbeddingBatchService {
+
+    private final AsyncAIServiceInterface asyncAiService;
+    private final PersistentAiCacheService persistentCache;
+    private final CacheManager cacheManager;
+
+    @Value("${ai.embedding.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.embedding.batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${ai.embedding.batch.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    private MicroBatcher<String, Embedding> batcher;
+    private Cache<String, Embedding> hotCache;
+
+    @PostConstruct
+    public void init() {
+        hotCache = CacheConfig.nativeCache(cacheManager, CacheConfig.EMBEDDINGS);
+        if (!enabled) return;
+        batcher = new MicroBatcher<>("embedding", asyncAiService::generateEmbeddingsAsync, maxBatchSize, maxDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) batcher.close();
+    }
+
+    /**
+     * Blocks until the batch containing this text returns. Returns an empty embedding on failure.
+     */
+    public Embedding generateEmbedding(String text) {
+        return generateEmbeddingAsync(text).join();
+    }
+
+    /**
+     * Completes when the batch containing this text returns. Never completes exceptionally.
+     * A persistent-cache read runs off the calling thread, before the provider is asked.
+     */
+    public CompletableFuture<Embedding> generateEmbeddingAsync(String text) {
+        Embedding hot = hotCache.getIfPresent(text);
+        if (hot != null) return CompletableFuture.completedFuture(hot);
+
+        return persistentCache.getEmbeddingAsync(text).thenCompose(stored -> {
+            if (stored != null) {
+                hotCache.put(text, stored);
+                return CompletableFuture.completedFuture(stored);
+            }
+            return fetch(text).thenApply(embedding -> {
+                if (embedding != null && !embedding.isEmpty()) {
+                    hotCache.put(text, embedding);
+                    persistentCache.putEmbedding(text, embedding);
+                }
+                return embedding;
+            });
+        });
+    }
+
+    // ================= HELPER METHODS =================
+
+    private CompletableFuture<Embedding> fetch(String text) {
+        if (batcher == null) {
+            return asyncAiService.generateEmbeddingAsync(text);
+        }
+        return batcher.submit(text).exceptionally(e -> {
+            log.error("Batched embedding failed: {}", e.getMessage());
+            return Embedding.empty();
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.nixo.fde.slackbot.service;
+
+import com.google.gson.Gson;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.utils.EmbeddingCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * One-off conversion of legacy JSON embeddings (slack_messages.embedding) into the binary
+ * embedding_data column. Runs in batches at startup until no JSON rows are left; rows that
+ * fail to parse get their JSON cleared so they are not retried forever.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmbeddingMigrationService {
+
+    private final SlackMessageRepository messageRepository;
+    private final Gson gson = new Gson();
+
+    @Value("${grouping.embedding.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${grouping.embedding.migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${grouping.embedding.storage-format:FLOAT32}")
+    private EmbeddingCodec.Format storageFormat;
+
+    // Run before the vector index warms up so it reads binary rows only
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyEmbeddings() {
+        if (!enabled) return;
+
+        int migrated = 0;
+        int failed = 0;
+        List<Object[]> batch;
+        do {
+            // Converted rows drop out of the query, so always read the first page
+            batch = messageRepository.findLegacyJsonEmbeddings(PageRequest.of(0, batchSize));
+            for (Object[] row : batch) {
+                Long id = (Long) row[0];
+                byte[] data = null;
+                try {
+                    data = EmbeddingCodec.encode(Embedding.of(gson.fromJson((String) row[1], float[].class)), storageFormat);
+                    migrated++;
+                } catch (Exception e) {
+                    log.warn("Dropping unparseable JSON embedding for message {}: {}", id, e.getMessage());
+                    failed++;
+                }
+                messageRepository.replaceJsonEmbedding(id, data);
+            }
+        } while (batch.size() == batchSize);
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Migrated {} JSON embeddings to binary ({} unparseable)", migrated, failed);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.SlackEventDto;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import com.nixo.fde.slackbot.utils.TimeBucketedBloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nixo.fde.slackbot.service.DownstreamLimiter.Downstream.DB;
+
+/**
+ * In-memory duplicate detection in front of the slack_timestamp DB check.
+ * <p>
+ * Two layers:
+ * <ul>
+ *   <li>Redeliveries of an event we already accepted (same event_id) are rejected in the
+ *   controller, before they are journaled or queued. The id is only remembered once the
+ *   original is durably accepted, so dropping the retry never loses the event.</li>
+ *   <li>Every processed message ts goes into a {@link TimeBucketedBloomFilter}. A filter miss
+ *   proves the message was not processed within the filter's window, so the DB check only runs
+ *   on a hit, on messages older than the window, or before the filter is warmed.</li>
+ * </ul>
+ * The DB stays the source of truth: the filter can only skip a query that would have said "no".
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventDeduplicationService {
+
+    private final SlackMessageRepository messageRepository;
+    private final DownstreamLimiter limiter;
+
+    @Value("${dedup.event-id-ttl-minutes:60}")
+    private long eventIdTtlMinutes;
+
+    @Value("${dedup.window-hours:24}")
+    private int windowHours;
+
+    @Value("${dedup.buckets:4}")
+    private int buckets;
+
+    @Value("${dedup.expected-per-bucket:100000}")
+    private int expectedPerBucket;
+
+    @Value("${dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private final Map<String, Long> acceptedEventIds = new ConcurrentHashMap<>();
+    private TimeBucketedBloomFilter processedTimestamps;
+    private volatile boolean warmed;
+
+    private final AtomicLong retriesRejected = new AtomicLong();
+    private final AtomicLong dbChecksSkipped = new AtomicLong();
+    private final AtomicLong dbChecks = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        // One extra bucket so the full window stays guaranteed while the oldest slice rotates out
+        long bucketMillis = TimeUnit.HOURS.toMillis(windowHours) / Math.max(1, buckets);
+        processedTimestamps = new TimeBucketedBloomFilter(buckets + 1, bucketMillis, expectedPerBucket, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = ApplicationUtils.getCurrentUtcDateTime().minus(guaranteedWindow());
+        List<String> timestamps = messageRepository.findSlackTimestampsSince(since);
+        timestamps.forEach(processedTimestamps::put);
+        warmed = true;
+        log.info("Dedup filter warmed with {} message timestamps ({} bits x {} hashes per bucket)",
+                timestamps.size(), processedTimestamps.getBitsPerBucket(), processedTimestamps.getHashCount());
+    }
+
+    /**
+     * Claims the event's id. Returns false if an event with this id was already accepted
+     * (a Slack retry or duplicate delivery). Events without an id are always accepted.
+     */
+    public boolean tryAccept(SlackEventDto eventDto) {
+        String eventId = eventDto.getEventId();
+        if (eventId == null) return true;
+        if (acceptedEventIds.putIfAbsent(eventId, System.currentTimeMillis()) == null) return true;
+        retriesRejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Releases a claim when the event could not be accepted after all, so Slack's retry is let in.
+     */
+    public void release(SlackEventDto eventDto) {
+        if (eventDto.getEventId() != null) acceptedEventIds.remove(eventDto.getEventId());
+    }
+
+    /**
+     * Whether a message with this ts is already stored. Only queries the DB when the filter
+     * cannot rule it out.
+     */
+    public boolean isAlreadyProcessed(String slackTimestamp) {
+        if (slackTimestamp == null) return false;
+
+        boolean insideWindow = Duration.between(ApplicationUtils.parseSlackTimestamp(slackTimestamp),
+                ApplicationUtils.getCurrentUtcDateTime()).compareTo(guaranteedWindow()) < 0;
+        if (warmed && insideWindow && !processedTimestamps.mightContain(slackTimestamp)) {
+            dbChecksSkipped.incrementAndGet();
+            return false;
+        }
+        dbChecks.incrementAndGet();
+        return limiter.call(DB, () -> messageRepository.existsBySlackTimestamp(slackTimestamp));
+    }
+
+    public void markProcessed(String slackTimestamp) {
+        if (slackTimestamp != null) processedTimestamps.put(slackTimestamp);
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void expireEventIds() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(eventIdTtlMinutes);
+        acceptedEventIds.values().removeIf(acceptedAt -> acceptedAt < cutoff);
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "trackedEventIds", acceptedEventIds.size(),
+                "retriesRejected", retriesRejected.get(),
+                "dbChecks", dbChecks.get(),
+                "dbChecksSkipped", dbChecksSkipped.get(),
+                "warmed", warmed
+        );
+    }
+
+    // ================= HELPER METHODS =================
+
+    private Duration guaranteedWindow() {
+        return Duration.ofMillis(processedTimestamps.getGuaranteedWindowMillis());
+    }
+}
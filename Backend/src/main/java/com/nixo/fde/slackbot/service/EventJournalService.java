@@ -0,0 +1,203 @@
+package com.nixo.fde.slackbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nixo.fde.slackbot.payload.SlackEventDto;
+import com.nixo.fde.slackbot.utils.EventJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable hand-off between the Slack webhook and the event pipeline.
+ * <p>
+ * The controller appends each raw event to an on-disk {@link EventJournal} and waits for the
+ * (group-committed) fsync before acking Slack. A single consumer thread reads the journal and
+ * dispatches events to {@link SlackBotEventService}, with at most {@code journal.max-in-flight}
+ * outstanding. The committed offset only moves past an event once it and every earlier event have
+ * finished, so after a crash processing resumes from the oldest unfinished event. Redelivered
+ * events are dropped by the existing slack_timestamp dedup check.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventJournalService {
+
+    private final SlackBotEventService eventService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.dir:journal}")
+    private String directory;
+
+    @Value("${journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${journal.max-in-flight:100}")
+    private int maxInFlight;
+
+    @Value("${journal.read-batch-size:100}")
+    private int readBatchSize;
+
+    @Value("${journal.poll-interval-ms:50}")
+    private long pollIntervalMs;
+
+    @Value("${journal.commit-interval-ms:1000}")
+    private long commitIntervalMs;
+
+    // Re-read from this offset at startup (load testing); -1 resumes from the committed offset
+    @Value("${journal.replay-from:-1}")
+    private long replayFrom;
+
+    private EventJournal journal;
+    private Thread consumer;
+    private Semaphore inFlight;
+    private final Semaphore wakeup = new Semaphore(0);
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+    private volatile boolean running;
+    private long readOffset;
+    private long committedOffset;
+    private long lastCommitTime;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) return;
+        journal = new EventJournal(Path.of(directory), segmentSizeMb * 1024 * 1024);
+        committedOffset = Math.max(journal.readCommittedOffset(), journal.getStartOffset());
+        readOffset = replayFrom >= 0 ? Math.max(replayFrom, journal.getStartOffset()) : committedOffset;
+        inFlight = new Semaphore(maxInFlight);
+        if (readOffset < journal.getWriteOffset()) {
+            log.info("Journal: resuming from offset {} ({} bytes behind)", readOffset, journal.getWriteOffset() - readOffset);
+        }
+
+        running = true;
+        consumer = new Thread(this::consumeLoop, "journal-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null) return;
+        running = false;
+        consumer.interrupt();
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    /**
+     * Makes the event durable and schedules it for processing. Throws if the journal write fails,
+     * in which case the caller should not ack so Slack redelivers.
+     */
+    public void submit(SlackEventDto eventDto) throws IOException {
+        if (journal == null) {
+            eventService.processEventAsync(eventDto);
+            return;
+        }
+        long end = journal.append(objectMapper.writeValueAsBytes(eventDto));
+        journal.sync(end);
+        wakeup.release();
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void consumeLoop() {
+        lastCommitTime = System.currentTimeMillis();
+        while (running) {
+            try {
+                List<EventJournal.Record> records = journal.read(readOffset, readBatchSize);
+                if (records.isEmpty()) {
+                    wakeup.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeup.drainPermits();
+                } else {
+                    for (EventJournal.Record record : records) {
+                        // Backpressure: stop reading while the pipeline is saturated
+                        inFlight.acquire();
+                        pending.add(record.getOffset());
+                        readOffset = record.getNextOffset();
+                        dispatch(record);
+                    }
+                }
+                maybeCommit(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Journal consumer error: {}", e.getMessage(), e);
+            }
+        }
+        maybeCommit(true);
+    }
+
+    private void dispatch(EventJournal.Record record) throws InterruptedException {
+        SlackEventDto eventDto;
+        try {
+            eventDto = objectMapper.readValue(record.getPayload(), SlackEventDto.class);
+        } catch (IOException e) {
+            log.error("Skipping unreadable journal record at offset {}: {}", record.getOffset(), e.getMessage());
+            complete(record.getOffset());
+            return;
+        }
+
+        CompletableFuture<Void> future;
+        while (true) {
+            try {
+                future = eventService.processEventAsync(eventDto);
+                break;
+            } catch (RejectedExecutionException e) {
+                // Executor queue is full; the event stays in the journal, so just wait and retry
+                Thread.sleep(pollIntervalMs);
+            } catch (RuntimeException e) {
+                // Not retryable: release its slot so the permit and the committed offset move on
+                log.error("Dropping journal record at offset {} that failed to dispatch: {}", record.getOffset(), e.getMessage(), e);
+                complete(record.getOffset());
+                return;
+            }
+        }
+        future.whenComplete((ignored, error) -> complete(record.getOffset()));
+    }
+
+    private void complete(long offset) {
+        pending.remove(offset);
+        inFlight.release();
+    }
+
+    /**
+     * Persists the offset of the oldest unfinished event. Runs only on the consumer thread, so
+     * readOffset and pending are consistent with each other here.
+     */
+    private void maybeCommit(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastCommitTime < commitIntervalMs) return;
+        lastCommitTime = now;
+
+        Long oldestPending = pending.isEmpty() ? null : pending.first();
+        long offset = oldestPending != null ? oldestPending : readOffset;
+        if (offset <= committedOffset) return;
+        try {
+            journal.commitOffset(offset);
+            committedOffset = offset;
+            int deleted = journal.deleteSegmentsBefore(offset);
+            if (deleted > 0) log.info("Journal: deleted {} fully consumed segment(s)", deleted);
+        } catch (IOException e) {
+            log.error("Failed to commit journal offset {}: {}", offset, e.getMessage());
+        }
+    }
+}
@@ -5,60 +5,158 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.nixo.fde.slackbot.config.GeminiConfigProperties;
 import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.utils.ClassificationPrompts;
+import com.nixo.fde.slackbot.utils.HttpUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @ConditionalOnProperty(name = "ai.provider", havingValue = "gemini", matchIfMissing = true)
-public class GeminiAIService implements AIServiceInterface {
+public class GeminiAIService implements AIServiceInterface, AsyncAIServiceInterface {
 
     private final GeminiConfigProperties geminiConfig;
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private final OkHttpClient httpClient;
     private final Gson gson = new Gson();
 
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
     @Override
-    @Cacheable(value="classifications", unless = "#result == null || #result.confidence == 0.0")
-    public ClassificationResultDto  classifyMessage(String messageText) {
+    public String getClassificationModel() {
+        return geminiConfig.getModel();
+    }
+
+    @Override
+    public String getEmbeddingModel() {
+        return geminiConfig.getEmbedding().getModel();
+    }
+
+    @Override
+    public ClassificationResultDto classifyMessage(String messageText) {
+        return classifyMessageAsync(messageText).join();
+    }
+
+    @Override
+    public CompletableFuture<ClassificationResultDto> classifyMessageAsync(String messageText) {
         try {
             // SAFETY FIX: Truncate large inputs to avoid crashes
             String safeText = messageText.length() > 5000 ? messageText.substring(0, 5000) : messageText;
             log.info("Using Gemini for classification");
             String prompt = buildClassificationPrompt(safeText); // Use safeText
-            String response = callGemini(prompt);
-            return parseClassificationResponse(response);
+            return callGeminiAsync(prompt)
+                    .thenApply(this::parseClassificationResponse)
+                    .exceptionally(e -> {
+                        log.error("Error classifying message with Gemini: {}", e.getMessage(), e);
+                        return ClassificationResultDto.irrelevant();
+                    });
         } catch (Exception e) {
             log.error("Error classifying message with Gemini: {}", e.getMessage(), e);
-            return ClassificationResultDto.irrelevant();
+            return CompletableFuture.completedFuture(ClassificationResultDto.irrelevant());
         }
     }
 
     @Override
-    @Cacheable("embeddings")
-    public List<Double> generateEmbedding(String text) {
+    public List<ClassificationResultDto> classifyMessages(List<String> messageTexts) {
+        return classifyMessagesAsync(messageTexts).join();
+    }
+
+    @Override
+    public CompletableFuture<List<ClassificationResultDto>> classifyMessagesAsync(List<String> messageTexts) {
+        if (messageTexts.size() == 1) {
+            return classifyMessageAsync(messageTexts.get(0)).thenApply(List::of);
+        }
+
+        List<ClassificationResultDto> results = new ArrayList<>(Collections.nCopies(messageTexts.size(), null));
+        CompletableFuture<Void> batch;
+        try {
+            log.info("Using Gemini for batch classification of {} messages", messageTexts.size());
+            List<String> safeTexts = new ArrayList<>(messageTexts.size());
+            for (String text : messageTexts) {
+                safeTexts.add(text.length() > 5000 ? text.substring(0, 5000) : text);
+            }
+            batch = callGeminiAsync(ClassificationPrompts.buildBatchClassificationPrompt(safeTexts))
+                    .thenAccept(response -> ClassificationPrompts.parseBatchClassificationResponse("Gemini", response, results));
+        } catch (Exception e) {
+            batch = CompletableFuture.failedFuture(e);
+        }
+
+        return batch
+                .exceptionally(e -> {
+                    log.error("Error batch classifying messages with Gemini: {}", e.getMessage(), e);
+                    return null;
+                })
+                .thenCompose(ignored -> {
+                    // Per-message fallback for anything the batch response did not cover
+                    List<CompletableFuture<Void>> fallbacks = new ArrayList<>();
+                    for (int i = 0; i < results.size(); i++) {
+                        if (results.get(i) != null) continue;
+                        int index = i;
+                        fallbacks.add(classifyMessageAsync(messageTexts.get(i))
+                                .thenAccept(result -> results.set(index, result)));
+                    }
+                    return CompletableFuture.allOf(fallbacks.toArray(new CompletableFuture[0]));
+                })
+                .thenApply(ignored -> results);
+    }
+
+    @Override
+    public Embedding generateEmbedding(String text) {
+        return generateEmbeddingAsync(text).join();
+    }
+
+    @Override
+    public CompletableFuture<Embedding> generateEmbeddingAsync(String text) {
         try {
             log.debug("Generating embedding with Gemini");
-            // SAFETY FIX: Remove newlines (improves AI accuracy) and truncate
-            String cleanText = text.replace("\n", " ");
-            String safeText = cleanText.length() > 8000 ? cleanText.substring(0, 8000) : cleanText;
-            return callGeminiEmbedding(safeText);
+            return callGeminiEmbeddingAsync(prepareEmbeddingText(text))
+                    .exceptionally(e -> {
+                        log.error("Error generating embedding with Gemini: {}", e.getMessage(), e);
+                        return Embedding.empty();
+                    });
         } catch (Exception e) {
             log.error("Error generating embedding with Gemini: {}", e.getMessage(), e);
-            return new ArrayList<>();
+            return CompletableFuture.completedFuture(Embedding.empty());
+        }
+    }
+
+    @Override
+    public List<Embedding> generateEmbeddings(List<String> texts) {
+        return generateEmbeddingsAsync(texts).join();
+    }
+
+    @Override
+    public CompletableFuture<List<Embedding>> generateEmbeddingsAsync(List<String> texts) {
+        try {
+            log.debug("Generating {} embeddings with Gemini", texts.size());
+            List<String> safeTexts = new ArrayList<>(texts.size());
+            for (String text : texts) safeTexts.add(prepareEmbeddingText(text));
+            return callGeminiBatchEmbeddingAsync(safeTexts)
+                    .exceptionally(e -> {
+                        log.error("Error generating batch embeddings with Gemini: {}", e.getMessage(), e);
+                        return new ArrayList<>(Collections.nCopies(texts.size(), Embedding.empty()));
+                    });
+        } catch (Exception e) {
+            log.error("Error generating batch embeddings with Gemini: {}", e.getMessage(), e);
+            return CompletableFuture.completedFuture(new ArrayList<>(Collections.nCopies(texts.size(), Embedding.empty())));
         }
     }
 
+    // SAFETY FIX: Remove newlines (improves AI accuracy) and truncate
+    private String prepareEmbeddingText(String text) {
+        String cleanText = text.replace("\n", " ");
+        return cleanText.length() > 8000 ? cleanText.substring(0, 8000) : cleanText;
+    }
+
     private String buildClassificationPrompt(String messageText) {
         return String.format("""
             Analyze this Slack message and determine if it's relevant to a Forward Deployed Engineer (FDE).
@@ -85,7 +183,7 @@ public class GeminiAIService implements AIServiceInterface {
             """, messageText);
     }
 
-    private String callGemini(String prompt) throws IOException {
+    private CompletableFuture<String> callGeminiAsync(String prompt) {
         String url = String.format("%s/models/%s:generateContent",
                 geminiConfig.getApi().getBaseUrl(),
                 geminiConfig.getModel());
@@ -115,12 +213,7 @@ public class GeminiAIService implements AIServiceInterface {
                 .post(body)
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Gemini API call failed: " + response);
-            }
-
-            String responseBody = response.body().string();
+        return HttpUtils.executeAsync(httpClient, request, "Gemini API call failed").thenApply(responseBody -> {
             JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
 
             return jsonResponse
@@ -130,10 +223,10 @@ public class GeminiAIService implements AIServiceInterface {
                     .getAsJsonArray("parts")
                     .get(0).getAsJsonObject()
                     .get("text").getAsString();
-        }
+        });
     }
 
-    private List<Double> callGeminiEmbedding(String text) throws IOException {
+    private CompletableFuture<Embedding> callGeminiEmbeddingAsync(String text) {
         String url = String.format("%s/models/%s:embedContent",
                 geminiConfig.getApi().getBaseUrl(),
                 geminiConfig.getEmbedding().getModel());
@@ -156,52 +249,71 @@ public class GeminiAIService implements AIServiceInterface {
                 .post(body)
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Gemini Embedding API call failed: " + response);
-            }
-
-            String responseBody = response.body().string();
+        return HttpUtils.executeAsync(httpClient, request, "Gemini Embedding API call failed").thenApply(responseBody -> {
             JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
             JsonArray values = jsonResponse
                     .getAsJsonObject("embedding")
                     .getAsJsonArray("values");
 
-            List<Double> embedding = new ArrayList<>();
-            for (int i = 0; i < values.size(); i++) {
-                embedding.add(values.get(i).getAsDouble());
+            float[] embedding = new float[values.size()];
+            for (int i = 0; i < embedding.length; i++) {
+                embedding[i] = values.get(i).getAsFloat();
             }
-            return embedding;
-        }
+            return Embedding.of(embedding);
+        });
     }
 
-    private ClassificationResultDto parseClassificationResponse(String response) {
-        try {
-            String jsonStr = response.trim();
+    private CompletableFuture<List<Embedding>> callGeminiBatchEmbeddingAsync(List<String> texts) {
+        String model = geminiConfig.getEmbedding().getModel();
+        String url = String.format("%s/models/%s:batchEmbedContents",
+                geminiConfig.getApi().getBaseUrl(),
+                model);
 
-            // Remove markdown code blocks if present
-            if (jsonStr.startsWith("```json")) {
-                jsonStr = jsonStr.substring(7);
-            } else if (jsonStr.startsWith("```")) {
-                jsonStr = jsonStr.substring(3);
-            }
+        JsonObject requestBody = new JsonObject();
+        JsonArray requests = new JsonArray();
+        for (String text : texts) {
+            JsonObject part = new JsonObject();
+            part.addProperty("text", text);
+            JsonArray parts = new JsonArray();
+            parts.add(part);
+            JsonObject content = new JsonObject();
+            content.add("parts", parts);
 
-            if (jsonStr.endsWith("```")) {
-                jsonStr = jsonStr.substring(0, jsonStr.length() - 3);
-            }
+            JsonObject embedRequest = new JsonObject();
+            embedRequest.addProperty("model", model.startsWith("models/") ? model : "models/" + model);
+            embedRequest.add("content", content);
+            requests.add(embedRequest);
+        }
+        requestBody.add("requests", requests);
 
-            jsonStr = jsonStr.trim();
+        RequestBody body = RequestBody.create(gson.toJson(requestBody), JSON);
+        Request request = new Request.Builder()
+                .url(url)
+                .header("x-goog-api-key", geminiConfig.getApi().getKey())
+                .header("Content-Type", "application/json")
+                .post(body)
+                .build();
 
-            JsonObject json = gson.fromJson(jsonStr, JsonObject.class);
+        return HttpUtils.executeAsync(httpClient, request, "Gemini Batch Embedding API call failed").thenApply(responseBody -> {
+            JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
+            JsonArray embeddings = jsonResponse.getAsJsonArray("embeddings");
 
-            boolean relevant = json.get("relevant").getAsBoolean();
-            String category = json.get("category").getAsString();
-            String title = json.has("title") && !json.get("title").isJsonNull()
-                    ? json.get("title").getAsString()
-                    : null;
-            double confidence = json.get("confidence").getAsDouble();
+            List<Embedding> result = new ArrayList<>(embeddings.size());
+            for (int i = 0; i < embeddings.size(); i++) {
+                JsonArray values = embeddings.get(i).getAsJsonObject().getAsJsonArray("values");
+                float[] embedding = new float[values.size()];
+                for (int j = 0; j < embedding.length; j++) {
+                    embedding[j] = values.get(j).getAsFloat();
+                }
+                result.add(Embedding.of(embedding));
+            }
+            return result;
+        });
+    }
 
-            return new ClassificationResultDto(relevant, category, title, confidence);
+    private ClassificationResultDto parseClassificationResponse(String response) {
+        try {
+            return ClassificationPrompts.parseClassification(response);
         } catch (Exception e) {
             log.error("Error parsing Gemini response: {}", e.getMessage());
             log.debug("Response was: {}", response);
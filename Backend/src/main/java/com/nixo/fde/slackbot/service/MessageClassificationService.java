@@ -0,0 +1,129 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.utils.MicroBatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Front door for classification requests from the event workers.
+ * <p>
+ * During bursts, messages arriving within a short window are packed into one
+ * {@link AIServiceInterface#classifyMessages} prompt, so the instruction preamble is paid once
+ * per batch instead of once per message. A lone message still uses the single-message prompt.
+ * <p>
+ * Messages the {@link PreClassifierService} is confident are irrelevant never reach the LLM, and
+ * near-duplicates of recently classified messages reuse the earlier verdict from the
+ * {@link SemanticClassificationCache}. Exact repeats from before a restart are answered from the
+ * {@link PersistentAiCacheService} table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageClassificationService {
+
+    private final AsyncAIServiceInterface asyncAiService;
+    private final PreClassifierService preClassifier;
+    private final SemanticClassificationCache semanticCache;
+    private final PersistentAiCacheService persistentCache;
+
+    @Value("${ai.classification.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.classification.batch.max-size:10}")
+    private int maxBatchSize;
+
+    @Value("${ai.classification.batch.max-delay-ms:20}")
+    private long maxDelayMs;
+
+    private MicroBatcher<String, ClassificationResultDto> batcher;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        batcher = new MicroBatcher<>("classification", asyncAiService::classifyMessagesAsync, maxBatchSize, maxDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) batcher.close();
+    }
+
+    /**
+     * Blocking form of {@link #classifyMessageAsync}, for callers outside the event pipeline.
+     */
+    public ClassificationResultDto classifyMessage(String messageText) {
+        return classifyMessageAsync(messageText).join();
+    }
+
+    /**
+     * Completes when the batch containing this message returns. Never completes exceptionally:
+     * falls back to irrelevant on failure, like the providers do. Obvious chatter is answered by
+     * the local pre-classifier and repeats by the caches, without an LLM call.
+     */
+    public CompletableFuture<ClassificationResultDto> classifyMessageAsync(String messageText) {
+        PreClassifierService.Prediction prediction = preClassifier.predict(messageText);
+        if (prediction.isSkip()) {
+            return CompletableFuture.completedFuture(preClassifier.toResult(prediction));
+        }
+
+        return semanticCache.lookupAsync(messageText).thenCompose(hit -> {
+            if (hit != null && !hit.isAudit()) {
+                return CompletableFuture.completedFuture(hit.getResult());
+            }
+            if (hit != null) {
+                // Audit: the LLM's verdict is compared with the cached one
+                return classifyAndLearnAsync(messageText, prediction, hit);
+            }
+
+            // The table read runs off this thread; the LLM is only asked on a miss
+            return fromPersistentCacheAsync(messageText).thenCompose(stored -> stored != null
+                    ? CompletableFuture.completedFuture(stored)
+                    : classifyAndLearnAsync(messageText, prediction, null));
+        });
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void onLlmResult(String messageText, PreClassifierService.Prediction prediction, SemanticClassificationCache.Hit auditedHit, ClassificationResultDto result) {
+        if (auditedHit != null) {
+            semanticCache.recordAudit(auditedHit.getResult(), result);
+        }
+        preClassifier.learn(messageText, prediction, result);
+        semanticCache.put(messageText, result);
+        persistentCache.putClassification(messageText, result);
+    }
+
+    private CompletableFuture<ClassificationResultDto> classifyAndLearnAsync(String messageText, PreClassifierService.Prediction prediction, SemanticClassificationCache.Hit auditedHit) {
+        return classifyWithLlmAsync(messageText).thenApply(result -> {
+            onLlmResult(messageText, prediction, auditedHit, result);
+            return result;
+        });
+    }
+
+    private CompletableFuture<ClassificationResultDto> fromPersistentCacheAsync(String messageText) {
+        return persistentCache.getClassificationAsync(messageText).thenApply(stored -> {
+            if (stored != null) {
+                // Promote to the in-heap tier so re-wordings of it match too
+                semanticCache.put(messageText, stored);
+            }
+            return stored;
+        });
+    }
+
+    private CompletableFuture<ClassificationResultDto> classifyWithLlmAsync(String messageText) {
+        if (batcher == null) {
+            return asyncAiService.classifyMessageAsync(messageText);
+        }
+        return batcher.submit(messageText).exceptionally(e -> {
+            log.error("Batched classification failed: {}", e.getMessage());
+            return ClassificationResultDto.irrelevant();
+        });
+    }
+}
@@ -1,24 +1,32 @@
 package com.nixo.fde.slackbot.service;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.nixo.fde.slackbot.config.CacheConfig;
 import com.nixo.fde.slackbot.models.SlackMessage;
 import com.nixo.fde.slackbot.models.SlackTicket;
 import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
 import com.nixo.fde.slackbot.repository.SlackMessageRepository;
 import com.nixo.fde.slackbot.repository.SlackTicketRepository;
 import com.nixo.fde.slackbot.utils.ApplicationUtils;
-import jakarta.transaction.Transactional;
+import com.nixo.fde.slackbot.utils.EmbeddingCodec;
+import com.nixo.fde.slackbot.utils.NearDuplicateIndex;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
@@ -27,75 +35,170 @@ public class MessageGroupingService {
 
     private final SlackTicketRepository ticketRepository;
     private final SlackMessageRepository messageRepository;
-    private final Gson gson = new Gson();
+    private final VectorSearchInterface vectorSearch;
+    private final EmbeddingBatchService embeddingService;
+    private final DownstreamLimiter limiter;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadRoutingIndex threadRoutingIndex;
+    private final TicketCounterService ticketCounterService;
+    private final TicketTouchBuffer ticketTouchBuffer;
+    private final CacheManager cacheManager;
 
-    @Value("${grouping.time.window.hours:24}")
-    private int timeWindowHours;
+    @Value("${grouping.index.top-k:5}")
+    private int topK;
 
-    // Caches
-    private final Map<Long, List<Double>> vectorCache = new ConcurrentHashMap<>();
-    private final Map<String, List<Double>> textEmbeddingCache = new ConcurrentHashMap<>();
+    @Value("${grouping.embedding.storage-format:FLOAT32}")
+    private EmbeddingCodec.Format storageFormat;
 
-    @Transactional
+    // Per-category grouping critical section (see processMessage)
+    private final Map<String, Lock> categoryLocks = new ConcurrentHashMap<>();
+
+    // Fuzzy embedding reuse: LSH over character shingles finds candidates, edit distance confirms
+    @Value("${grouping.fuzzy-cache.min-similarity:0.90}")
+    private double fuzzyMinSimilarity;
+
+    @Value("${grouping.fuzzy-cache.max-candidates:16}")
+    private int fuzzyMaxCandidates;
+
+    @Value("${grouping.fuzzy-cache.max-entries:50000}")
+    private int fuzzyMaxEntries;
+
+    @Value("${grouping.fuzzy-cache.bands:16}")
+    private int fuzzyBands;
+
+    @Value("${grouping.fuzzy-cache.rows:2}")
+    private int fuzzyRows;
+
+    @Value("${grouping.fuzzy-cache.shingle-size:3}")
+    private int fuzzyShingleSize;
+
+    // Caches (bounded by cache.specs.text-embeddings)
+    private Cache<String, Embedding> textEmbeddingCache;
+    private NearDuplicateIndex fuzzyIndex;
+
+    @PostConstruct
+    public void init() {
+        textEmbeddingCache = CacheConfig.nativeCache(cacheManager, CacheConfig.TEXT_EMBEDDINGS);
+        fuzzyIndex = new NearDuplicateIndex(fuzzyBands, fuzzyRows, fuzzyShingleSize, fuzzyMaxEntries);
+    }
+
+    /**
+     * Attaches the message to its ticket, creating one if needed. Returns null for duplicate
+     * content (the caller stays silent).
+     * <p>
+     * The embedding is fetched outside any transaction. Matching against the index, creating a
+     * ticket and saving the message then run as one short transaction under a per-category lock
+     * that is held until commit, so two concurrent look-alike messages cannot both miss and both
+     * create a ticket. Different categories never contend for the lock. The lock is only taken
+     * once a DB permit is held, so a thread never holds it while waiting for a permit.
+     * <p>
+     * {@code prefetchedEmbedding} is the message's embedding if the caller already fetched it
+     * without blocking (see {@link #prefetchEmbedding}); it is only used on the slow path, which
+     * fetches the embedding itself when it is null.
+     */
     public SlackTicket processMessage(
             String messageText,
             String threadTs,
             ClassificationResultDto classification,
-            AIServiceInterface aiService,
             String user,
             String channel,
             String channelType,
-            String slackTimestamp
+            String slackTimestamp,
+            Embedding prefetchedEmbedding
     ) {
-        SlackTicket ticket = null;
-        List<Double> embedding = null;
-
         // ---------------------------------------------------------
         // 1. FAST PATH: Check Thread ID (Zero Latency)
         // ---------------------------------------------------------
         if (threadTs != null && !threadTs.isEmpty()) {
-            List<SlackMessage> threadMessages = messageRepository.findBySlackTimestamp(threadTs);
-            if (!threadMessages.isEmpty()) {
+            ThreadRoutingIndex.Route route = threadRoutingIndex.get(threadTs);
+            // null = no ticket for this thread; empty Optional = matched but duplicate content
+            Optional<SlackTicket> threadResult = limiter.call(DownstreamLimiter.Downstream.DB, () -> transactionTemplate.execute(status -> {
+                SlackTicket threadTicket;
+                String threadCategory;
+                if (route != null) {
+                    // Routed in memory: no lookup query, just an uninitialised reference to attach
+                    // to. The category comes from the route, so the ticket row is never loaded.
+                    threadTicket = ticketRepository.getReferenceById(route.getTicketId());
+                    threadCategory = route.getCategory();
+                } else {
+                    List<SlackMessage> threadMessages = messageRepository.findBySlackTimestamp(threadTs);
+                    if (threadMessages.isEmpty()) return null;
+                    threadTicket = threadMessages.get(0).getTicket();
+                    threadCategory = threadTicket.getCategory();
+                }
                 log.info("Fast Match: Found existing ticket via thread_ts");
-                ticket = threadMessages.get(0).getTicket();
+                return Optional.ofNullable(addToTicket(threadTicket, threadCategory, messageText, user, channel, channelType, slackTimestamp, threadTs, null));
+            }));
+            if (threadResult != null) {
+                threadResult.ifPresent(ticket -> routeMessage(slackTimestamp, ticket));
+                return threadResult.orElse(null);
             }
         }
 
         // ---------------------------------------------------------
         // 2. SLOW PATH: Vector Similarity (Only if not a thread)
         // ---------------------------------------------------------
-        if (ticket == null) {
-            // OPTIMIZATION: Use internal cache wrapper, not direct service call!
-            embedding = getEmbeddingWithCache(messageText, aiService);
-
-            if (embedding != null && !embedding.isEmpty()) {
-                ticket = findSimilarTicket(embedding, classification.getCategory());
+        // OPTIMIZATION: Use internal cache wrapper, not direct service call!
+        Embedding embedding = prefetchedEmbedding != null
+                ? prefetchedEmbedding
+                : getEmbeddingWithCache(messageText);
+
+        String category = classification.getCategory();
+        Lock lock = categoryLocks.computeIfAbsent(categoryLockKey(category), c -> new ReentrantLock());
+        // DB permit first, lock inside it: the lock is only held while the transaction runs,
+        // never while queueing for a permit behind other categories' work
+        return limiter.call(DownstreamLimiter.Downstream.DB, () -> {
+            lock.lock();
+            try {
+                SlackTicket ticket = transactionTemplate.execute(status -> {
+                    SlackTicket match = null;
+                    if (embedding != null && !embedding.isEmpty()) {
+                        match = findSimilarTicket(embedding, category);
+                    }
+
+                    if (match == null) {
+                        log.info("No match found. Creating new ticket: {}", classification.getTitle());
+                        match = createNewTicket(category, classification.getTitle(), user, channel);
+                    }
+                    return addToTicket(match, category, messageText, user, channel, channelType, slackTimestamp, threadTs, embedding);
+                });
+                // Committed: replies to this message can now be routed without a query
+                routeMessage(slackTimestamp, ticket);
+                return ticket;
+            } finally {
+                lock.unlock();
             }
+        });
+    }
 
-            if (ticket == null) {
-                log.info("No match found. Creating new ticket: {}", classification.getTitle());
-                ticket = createNewTicket(classification.getCategory(), classification.getTitle());
-            }
-        }
+    // ================= HELPER METHODS =================
+
+    // Same normalisation as the vector index, so categories that share an index share a lock
+    private static String categoryLockKey(String category) {
+        return category == null ? "NONE" : category.toUpperCase();
+    }
+
+    private void routeMessage(String slackTimestamp, SlackTicket ticket) {
+        if (ticket == null) return;
+        threadRoutingIndex.put(slackTimestamp, new ThreadRoutingIndex.Route(ticket.getId(), ticket.getCategory(), ticket.getTitle()));
+    }
 
+    /**
+     * Returns the ticket as of this message (a detached snapshot, see saveMessage), or null for
+     * duplicate content. Only the ticket's id is read, so {@code ticket} may be an uninitialised
+     * reference.
+     */
+    private SlackTicket addToTicket(SlackTicket ticket, String category, String messageText, String user, String channel, String channelType, String slackTimestamp, String threadTs, Embedding embedding) {
         // ---------------------------------------------------------
-        // 3. CONTENT DEDUPLICATION & HIBERNATE FIX
+        // 3. CONTENT DEDUPLICATION
         // ---------------------------------------------------------
 
-        // Fix for LazyInitializationException
-        if (ticket.getMessages() == null) {
-            ticket.setMessages(new ArrayList<>());
-        }
-        ticket.getMessages().size(); // Wakes up Hibernate
-
         // Check for duplicates
-        boolean isDuplicateContent = ticket.getMessages().stream()
-                .anyMatch(msg -> msg.getSlackText().trim().equalsIgnoreCase(messageText.trim()));
+        boolean isDuplicateContent = messageRepository.existsSameTextOnTicket(ticket.getId(), messageText);
 
         if (isDuplicateContent) {
             log.info("Duplicate content detected in Ticket {}. Updating timestamp silently.", ticket.getId());
-            ticket.setUpdatedAt(ApplicationUtils.getCurrentUtcDateTime());
-            ticketRepository.save(ticket);
+            ticketTouchBuffer.touch(ticket.getId(), ApplicationUtils.getCurrentUtcDateTime());
 
             // Return NULL to signal EventService to stay silent
             return null;
@@ -104,17 +207,10 @@ public class MessageGroupingService {
         // ---------------------------------------------------------
         // 4. SAVE
         // ---------------------------------------------------------
-        SlackMessage savedMsg = saveMessage(ticket, messageText, user, channel, channelType, slackTimestamp, threadTs, embedding);
-
-        // Add to list so UI sees it
-        ticket.getMessages().add(savedMsg);
-
-        return ticket;
+        return saveMessage(ticket, category, messageText, user, channel, channelType, slackTimestamp, threadTs, embedding);
     }
 
-    // ================= HELPER METHODS =================
-
-    private SlackMessage saveMessage(SlackTicket ticket, String text, String user, String channel, String cType, String ts, String threadTs, List<Double> embedding) {
+    private SlackTicket saveMessage(SlackTicket ticket, String category, String text, String user, String channel, String cType, String ts, String threadTs, Embedding embedding) {
         SlackMessage message = SlackMessage.builder()
                 .ticket(ticket)
                 .slackText(text)
@@ -123,97 +219,122 @@ public class MessageGroupingService {
                 .channelType(cType)
                 .slackTimestamp(ts)
                 .threadTs(threadTs)
-                .embedding(embedding != null ? gson.toJson(embedding) : null)
+                .embeddingData(EmbeddingCodec.encode(embedding, storageFormat))
                 .slackMessageTime(ApplicationUtils.parseSlackTimestamp(ts))
                 .createdAt(ApplicationUtils.getCurrentUtcDateTime())
                 .build();
 
         SlackMessage saved = messageRepository.save(message);
+        vectorSearch.addMessage(saved.getId(), ticket.getId(), category, saved.getSlackMessageTime(), embedding);
 
-        ticket.setUpdatedAt(ApplicationUtils.getCurrentUtcDateTime());
-        ticketRepository.save(ticket);
+        // Denormalised counters: atomic in SQL, which also returns the updated row for the
+        // notification, so the ticket entity is neither loaded nor mirrored
+        SlackTicketRepository.TicketSummary row = ticketRepository.recordMessages(ticket.getId(), 1, saved.getSlackMessageTime());
 
-        return saved;
+        // updated_at is coalesced per ticket and written behind; the snapshot carries the value
+        // the buffer will write
+        LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+        ticketTouchBuffer.touch(ticket.getId(), now);
+
+        return toSnapshot(row, now);
     }
 
-    private SlackTicket createNewTicket(String category, String title) {
+    private SlackTicket toSnapshot(SlackTicketRepository.TicketSummary row, LocalDateTime updatedAt) {
+        return SlackTicket.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .category(row.getCategory())
+                .status(row.getStatus())
+                .messageCount(row.getMessageCount() == null ? 0 : row.getMessageCount())
+                .lastMessageAt(row.getLastMessageAt())
+                .firstUser(row.getFirstUser())
+                .firstChannel(row.getFirstChannel())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt() == null || row.getUpdatedAt().isBefore(updatedAt) ? updatedAt : row.getUpdatedAt())
+                .build();
+    }
+
+    private SlackTicket createNewTicket(String category, String title, String user, String channel) {
         SlackTicket ticket = SlackTicket.builder()
                 .title(title)
                 .category(category)
                 .status("OPEN")
+                .firstUser(user)
+                .firstChannel(channel)
                 .updatedAt(ApplicationUtils.getCurrentUtcDateTime())
                 .createdAt(ApplicationUtils.getCurrentUtcDateTime())
                 .build();
-        return ticketRepository.save(ticket);
+        SlackTicket saved = ticketRepository.save(ticket);
+        ticketCounterService.ticketCreated(saved);
+        return saved;
     }
 
-    private SlackTicket findSimilarTicket(List<Double> targetEmbedding, String category) {
-        LocalDateTime since = LocalDateTime.now().minusHours(timeWindowHours);
-        List<SlackMessage> recentMessages = messageRepository.findRecentMessagesWithEmbeddings(since);
-
-        double maxSimilarity = -1.0;
-        SlackTicket bestMatch = null;
+    private SlackTicket findSimilarTicket(Embedding targetEmbedding, String category) {
+        List<VectorSearchInterface.TicketMatch> matches = vectorSearch.findNearestTickets(targetEmbedding, category, topK);
+        if (matches.isEmpty()) return null;
 
-        for (SlackMessage msg : recentMessages) {
-            if (!msg.getTicket().getCategory().equalsIgnoreCase(category)) continue;
-
-            List<Double> candidateVector = vectorCache.computeIfAbsent(msg.getTicket().getId(), k ->
-                    parseEmbedding(msg.getEmbedding())
-            );
-
-            if (candidateVector.isEmpty()) continue;
+        VectorSearchInterface.TicketMatch bestMatch = matches.get(0);
+        if (bestMatch.getSimilarity() >= ApplicationUtils.getSimilarityThreshold(category)) {
+            // The index is only updated after commit, but the ticket may have been deleted since
+            return ticketRepository.findById(bestMatch.getTicketId()).orElse(null);
+        }
+        return null;
+    }
 
-            double similarity = cosineSimilarity(targetEmbedding, candidateVector);
+    /**
+     * Starts fetching the embedding for a message whose classification is still pending. Goes
+     * through the same caches as the blocking path, and never completes exceptionally.
+     */
+    public CompletableFuture<Embedding> prefetchEmbedding(String text) {
+        Embedding cached = getCachedEmbedding(text);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
 
-            if (similarity > maxSimilarity) {
-                maxSimilarity = similarity;
-                bestMatch = msg.getTicket();
+        return embeddingService.generateEmbeddingAsync(text).thenApply(embedding -> {
+            if (embedding != null && !embedding.isEmpty()) {
+                cacheEmbedding(text, embedding);
             }
-        }
-
-        if (maxSimilarity >= ApplicationUtils.getSimilarityThreshold(category)) {
-            return bestMatch;
-        }
-        return null;
+            return embedding;
+        });
     }
 
     // Adding Caching to Embedding to Reduce API calls
-    private List<Double> getEmbeddingWithCache(String text, AIServiceInterface aiService) {
-        // 1. Exact Match
-        if (textEmbeddingCache.containsKey(text)) return textEmbeddingCache.get(text);
-
-        // 2. Fuzzy Match (Levenshtein)
-        for (Map.Entry<String, List<Double>> entry : textEmbeddingCache.entrySet()) {
-            if (Math.abs(entry.getKey().length() - text.length()) > 10) continue;
-            if (ApplicationUtils.calculateStringSimilarity(text, entry.getKey()) >= 0.90) {
-                textEmbeddingCache.put(text, entry.getValue());
-                return entry.getValue();
-            }
-        }
+    private Embedding getEmbeddingWithCache(String text) {
+        Embedding cached = getCachedEmbedding(text);
+        if (cached != null) return cached;
 
-        // 3. AI Service
-        List<Double> embedding = aiService.generateEmbedding(text);
+        // 3. AI Service (coalesced with concurrent requests into one batch call)
+        Embedding embedding = limiter.call(DownstreamLimiter.Downstream.AI, () -> embeddingService.generateEmbedding(text));
         if (embedding != null && !embedding.isEmpty()) {
-            textEmbeddingCache.put(text, embedding);
+            cacheEmbedding(text, embedding);
         }
         return embedding;
     }
 
-    private List<Double> parseEmbedding(String embeddingJson) {
-        try {
-            return gson.fromJson(embeddingJson, new TypeToken<List<Double>>(){}.getType());
-        } catch (Exception e) { return List.of(); }
+    private Embedding getCachedEmbedding(String text) {
+        // 1. Exact Match
+        Embedding exact = textEmbeddingCache.getIfPresent(text);
+        if (exact != null) return exact;
+
+        // 2. Fuzzy Match: LSH candidates, confirmed by bounded Levenshtein
+        for (String candidate : fuzzyIndex.candidates(text, fuzzyMaxCandidates)) {
+            if (Math.abs(candidate.length() - text.length()) > 10) continue;
+            Embedding embedding = textEmbeddingCache.getIfPresent(candidate);
+            if (embedding == null) {
+                // Evicted from the cache since it was indexed
+                fuzzyIndex.remove(candidate);
+                continue;
+            }
+            if (ApplicationUtils.isStringSimilar(text, candidate, fuzzyMinSimilarity)) {
+                cacheEmbedding(text, embedding);
+                return embedding;
+            }
+        }
+        return null;
     }
 
-    private double cosineSimilarity(List<Double> vec1, List<Double> vec2) {
-        if (vec1.size() != vec2.size()) return 0.0;
-        double dotProduct = 0.0, norm1 = 0.0, norm2 = 0.0;
-        for (int i = 0; i < vec1.size(); i++) {
-            dotProduct += vec1.get(i) * vec2.get(i);
-            norm1 += vec1.get(i) * vec1.get(i);
-            norm2 += vec2.get(i) * vec2.get(i);
-        }
-        return (norm1 == 0 || norm2 == 0) ? 0.0 : dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    private void cacheEmbedding(String text, Embedding embedding) {
+        textEmbeddingCache.put(text, embedding);
+        fuzzyIndex.add(text);
     }
 
-}
\ No newline at end of file
+}
@@ -5,58 +5,159 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.nixo.fde.slackbot.config.OpenAIConfigProperties;
 import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.utils.ClassificationPrompts;
+import com.nixo.fde.slackbot.utils.HttpUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @ConditionalOnProperty(name = "ai.provider", havingValue = "openai")
-public class OpenAIService implements AIServiceInterface {
+public class OpenAIService implements AIServiceInterface, AsyncAIServiceInterface {
 
     private final OpenAIConfigProperties openAiConfig;
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private final OkHttpClient httpClient;
     private final Gson gson = new Gson();
 
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
     private static final String OPENAI_API_BASE = "https://api.openai.com/v1";
 
+    @Override
+    public String getClassificationModel() {
+        return openAiConfig.getModel();
+    }
+
+    @Override
+    public String getEmbeddingModel() {
+        return openAiConfig.getEmbedding().getModel();
+    }
+
     @Override
     public ClassificationResultDto classifyMessage(String messageText) {
+        return classifyMessageAsync(messageText).join();
+    }
+
+    @Override
+    public CompletableFuture<ClassificationResultDto> classifyMessageAsync(String messageText) {
         try {
-            log.info("Using OpenAI for classification");
             // SAFETY FIX: Truncate large inputs to avoid crashes
             String safeText = messageText.length() > 5000 ? messageText.substring(0, 5000) : messageText;
+            log.info("Using OpenAI for classification");
             String prompt = buildClassificationPrompt(safeText); // Use safeText
-            String response = callOpenAI(prompt);
-            return parseClassificationResponse(response);
+            return callOpenAIAsync(prompt)
+                    .thenApply(this::parseClassificationResponse)
+                    .exceptionally(e -> {
+                        log.error("Error classifying message with OpenAI: {}", e.getMessage(), e);
+                        return ClassificationResultDto.irrelevant();
+                    });
         } catch (Exception e) {
             log.error("Error classifying message with OpenAI: {}", e.getMessage(), e);
-            return ClassificationResultDto.irrelevant();
+            return CompletableFuture.completedFuture(ClassificationResultDto.irrelevant());
+        }
+    }
+
+    @Override
+    public List<ClassificationResultDto> classifyMessages(List<String> messageTexts) {
+        return classifyMessagesAsync(messageTexts).join();
+    }
+
+    @Override
+    public CompletableFuture<List<ClassificationResultDto>> classifyMessagesAsync(List<String> messageTexts) {
+        if (messageTexts.size() == 1) {
+            return classifyMessageAsync(messageTexts.get(0)).thenApply(List::of);
+        }
+
+        List<ClassificationResultDto> results = new ArrayList<>(Collections.nCopies(messageTexts.size(), null));
+        CompletableFuture<Void> batch;
+        try {
+            log.info("Using OpenAI for batch classification of {} messages", messageTexts.size());
+            List<String> safeTexts = new ArrayList<>(messageTexts.size());
+            for (String text : messageTexts) {
+                safeTexts.add(text.length() > 5000 ? text.substring(0, 5000) : text);
+            }
+            batch = callOpenAIAsync(ClassificationPrompts.buildBatchClassificationPrompt(safeTexts))
+                    .thenAccept(response -> ClassificationPrompts.parseBatchClassificationResponse("OpenAI", response, results));
+        } catch (Exception e) {
+            batch = CompletableFuture.failedFuture(e);
         }
+
+        return batch
+                .exceptionally(e -> {
+                    log.error("Error batch classifying messages with OpenAI: {}", e.getMessage(), e);
+                    return null;
+                })
+                .thenCompose(ignored -> {
+                    // Per-message fallback for anything the batch response did not cover
+                    List<CompletableFuture<Void>> fallbacks = new ArrayList<>();
+                    for (int i = 0; i < results.size(); i++) {
+                        if (results.get(i) != null) continue;
+                        int index = i;
+                        fallbacks.add(classifyMessageAsync(messageTexts.get(i))
+                                .thenAccept(result -> results.set(index, result)));
+                    }
+                    return CompletableFuture.allOf(fallbacks.toArray(new CompletableFuture[0]));
+                })
+                .thenApply(ignored -> results);
+    }
+
+    @Override
+    public Embedding generateEmbedding(String text) {
+        return generateEmbeddingAsync(text).join();
     }
 
     @Override
-    public List<Double> generateEmbedding(String text) {
+    public CompletableFuture<Embedding> generateEmbeddingAsync(String text) {
         try {
             log.debug("Generating embedding with OpenAI");
-            // SAFETY FIX: Remove newlines (improves AI accuracy) and truncate
-            String cleanText = text.replace("\n", " ");
-            String safeText = cleanText.length() > 8000 ? cleanText.substring(0, 8000) : cleanText;
-            return callOpenAIEmbedding(safeText);
+            return callOpenAIEmbeddingAsync(prepareEmbeddingText(text))
+                    .exceptionally(e -> {
+                        log.error("Error generating embedding with OpenAI: {}", e.getMessage(), e);
+                        return Embedding.empty();
+                    });
         } catch (Exception e) {
             log.error("Error generating embedding with OpenAI: {}", e.getMessage(), e);
-            return new ArrayList<>();
+            return CompletableFuture.completedFuture(Embedding.empty());
+        }
+    }
+
+    @Override
+    public List<Embedding> generateEmbeddings(List<String> texts) {
+        return generateEmbeddingsAsync(texts).join();
+    }
+
+    @Override
+    public CompletableFuture<List<Embedding>> generateEmbeddingsAsync(List<String> texts) {
+        try {
+            log.debug("Generating {} embeddings with OpenAI", texts.size());
+            List<String> safeTexts = new ArrayList<>(texts.size());
+            for (String text : texts) safeTexts.add(prepareEmbeddingText(text));
+            return callOpenAIBatchEmbeddingAsync(safeTexts)
+                    .exceptionally(e -> {
+                        log.error("Error generating batch embeddings with OpenAI: {}", e.getMessage(), e);
+                        return new ArrayList<>(Collections.nCopies(texts.size(), Embedding.empty()));
+                    });
+        } catch (Exception e) {
+            log.error("Error generating batch embeddings with OpenAI: {}", e.getMessage(), e);
+            return CompletableFuture.completedFuture(new ArrayList<>(Collections.nCopies(texts.size(), Embedding.empty())));
         }
     }
 
+    // SAFETY FIX: Remove newlines (improves AI accuracy) and truncate
+    private String prepareEmbeddingText(String text) {
+        String cleanText = text.replace("\n", " ");
+        return cleanText.length() > 8000 ? cleanText.substring(0, 8000) : cleanText;
+    }
+
     private String buildClassificationPrompt(String messageText) {
         return String.format("""
             Analyze this Slack message and determine if it's relevant to a Forward Deployed Engineer (FDE).
@@ -83,7 +184,7 @@ public class OpenAIService implements AIServiceInterface {
             """, messageText);
     }
 
-    private String callOpenAI(String prompt) throws IOException {
+    private CompletableFuture<String> callOpenAIAsync(String prompt) {
         String url = OPENAI_API_BASE + "/chat/completions";
 
         JsonObject requestBody = new JsonObject();
@@ -105,12 +206,7 @@ public class OpenAIService implements AIServiceInterface {
                 .post(body)
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("OpenAI API call failed: " + response);
-            }
-
-            String responseBody = response.body().string();
+        return HttpUtils.executeAsync(httpClient, request, "OpenAI API call failed").thenApply(responseBody -> {
             JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
 
             return jsonResponse
@@ -118,10 +214,10 @@ public class OpenAIService implements AIServiceInterface {
                     .get(0).getAsJsonObject()
                     .getAsJsonObject("message")
                     .get("content").getAsString();
-        }
+        });
     }
 
-    private List<Double> callOpenAIEmbedding(String text) throws IOException {
+    private CompletableFuture<Embedding> callOpenAIEmbeddingAsync(String text) {
         String url = OPENAI_API_BASE + "/embeddings";
 
         JsonObject requestBody = new JsonObject();
@@ -135,53 +231,60 @@ public class OpenAIService implements AIServiceInterface {
                 .post(body)
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("OpenAI Embedding API call failed: " + response);
-            }
-
-            String responseBody = response.body().string();
+        return HttpUtils.executeAsync(httpClient, request, "OpenAI Embedding API call failed").thenApply(responseBody -> {
             JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
             JsonArray embeddingArray = jsonResponse
                     .getAsJsonArray("data")
                     .get(0).getAsJsonObject()
                     .getAsJsonArray("embedding");
 
-            List<Double> embedding = new ArrayList<>();
-            for (int i = 0; i < embeddingArray.size(); i++) {
-                embedding.add(embeddingArray.get(i).getAsDouble());
+            float[] embedding = new float[embeddingArray.size()];
+            for (int i = 0; i < embedding.length; i++) {
+                embedding[i] = embeddingArray.get(i).getAsFloat();
             }
-            return embedding;
-        }
+            return Embedding.of(embedding);
+        });
     }
 
-    private ClassificationResultDto parseClassificationResponse(String response) {
-        try {
-            String jsonStr = response.trim();
-
-            // Remove markdown code blocks if present
-            if (jsonStr.startsWith("```json")) {
-                jsonStr = jsonStr.substring(7);
-            } else if (jsonStr.startsWith("```")) {
-                jsonStr = jsonStr.substring(3);
-            }
+    private CompletableFuture<List<Embedding>> callOpenAIBatchEmbeddingAsync(List<String> texts) {
+        String url = OPENAI_API_BASE + "/embeddings";
 
-            if (jsonStr.endsWith("```")) {
-                jsonStr = jsonStr.substring(0, jsonStr.length() - 3);
-            }
+        JsonObject requestBody = new JsonObject();
+        requestBody.addProperty("model", openAiConfig.getEmbedding().getModel());
+        JsonArray input = new JsonArray();
+        texts.forEach(input::add);
+        requestBody.add("input", input);
 
-            jsonStr = jsonStr.trim();
+        RequestBody body = RequestBody.create(gson.toJson(requestBody), JSON);
+        Request request = new Request.Builder()
+                .url(url)
+                .header("Authorization", "Bearer " + openAiConfig.getApi().getKey())
+                .post(body)
+                .build();
 
-            JsonObject json = gson.fromJson(jsonStr, JsonObject.class);
+        return HttpUtils.executeAsync(httpClient, request, "OpenAI Batch Embedding API call failed").thenApply(responseBody -> {
+            JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
+            JsonArray data = jsonResponse.getAsJsonArray("data");
 
-            boolean relevant = json.get("relevant").getAsBoolean();
-            String category = json.get("category").getAsString();
-            String title = json.has("title") && !json.get("title").isJsonNull()
-                    ? json.get("title").getAsString()
-                    : null;
-            double confidence = json.get("confidence").getAsDouble();
+            // Results carry an explicit index; don't rely on response order
+            List<Embedding> result = new ArrayList<>(Collections.nCopies(texts.size(), Embedding.empty()));
+            for (int i = 0; i < data.size(); i++) {
+                JsonObject item = data.get(i).getAsJsonObject();
+                int index = item.has("index") ? item.get("index").getAsInt() : i;
+                JsonArray embeddingArray = item.getAsJsonArray("embedding");
+                float[] embedding = new float[embeddingArray.size()];
+                for (int j = 0; j < embedding.length; j++) {
+                    embedding[j] = embeddingArray.get(j).getAsFloat();
+                }
+                result.set(index, Embedding.of(embedding));
+            }
+            return result;
+        });
+    }
 
-            return new ClassificationResultDto(relevant, category, title, confidence);
+    private ClassificationResultDto parseClassificationResponse(String response) {
+        try {
+            return ClassificationPrompts.parseClassification(response);
         } catch (Exception e) {
             log.error("Error parsing OpenAI response: {}", e.getMessage());
             log.debug("Response was: {}", response);
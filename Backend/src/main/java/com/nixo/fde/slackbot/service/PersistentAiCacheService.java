@@ -0,0 +1,270 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.models.AiCacheEntry;
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.repository.AiCacheEntryRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import com.nixo.fde.slackbot.utils.EmbeddingCodec;
+import com.nixo.fde.slackbot.utils.KeyedSerialExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database tier behind the in-heap embedding and classification caches, so a restart does not
+ * start cold.
+ * <p>
+ * Entries live in {@code ai_cache_entries}, keyed by the SHA-256 of kind, model, {@code namespace}
+ * and the normalised text; changing the model (or bumping the namespace after a prompt change)
+ * simply stops old entries from matching. Reads go to the table on an in-heap miss, on the event
+ * executor under a DB permit, so the caller gets a future instead of waiting on the query.
+ * Writes are queued and a background flush inserts each drained batch with one multi-row
+ * statement, so the event path never waits on them; if the queue is full the write is dropped
+ * (it is only a cache). Entries older than {@code ttl-days} are purged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PersistentAiCacheService {
+
+    private static final String EMBEDDING = "EMBEDDING";
+    private static final String CLASSIFICATION = "CLASSIFICATION";
+    private static final byte CLASSIFICATION_VERSION = 1;
+
+    private final AiCacheEntryRepository repository;
+    private final AIServiceInterface aiService;
+    private final DownstreamLimiter limiter;
+    private final TransactionTemplate transactionTemplate;
+    private final KeyedSerialExecutor eventKeyedExecutor;
+
+    @Value("${ai.persistent-cache.enabled:true}")
+    private boolean enabled;
+
+    // Bump after changing a prompt so verdicts from the old prompt are no longer reused
+    @Value("${ai.persistent-cache.namespace:v1}")
+    private String namespace;
+
+    @Value("${ai.persistent-cache.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${ai.persistent-cache.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    @Value("${ai.persistent-cache.ttl-days:30}")
+    private int ttlDays;
+
+    private BlockingQueue<AiCacheEntry> pending;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pending = new LinkedBlockingQueue<>(Math.max(1, maxPending));
+    }
+
+    /**
+     * Completes with the stored embedding for this text under the current embedding model, or
+     * null. Never completes exceptionally.
+     */
+    public CompletableFuture<Embedding> getEmbeddingAsync(String text) {
+        return readAsync(EMBEDDING, aiService.getEmbeddingModel(), text).thenApply(payload -> {
+            if (payload == null) return null;
+            try {
+                Embedding embedding = EmbeddingCodec.decode(payload);
+                return embedding.isEmpty() ? null : embedding;
+            } catch (Exception e) {
+                log.warn("Ignoring undecodable cached embedding: {}", e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    public void putEmbedding(String text, Embedding embedding) {
+        if (embedding == null || embedding.isEmpty()) return;
+        write(EMBEDDING, aiService.getEmbeddingModel(), text, EmbeddingCodec.encode(embedding, EmbeddingCodec.Format.FLOAT32));
+    }
+
+    /**
+     * Completes with the stored LLM verdict for this text under the current classification
+     * model, or null. Never completes exceptionally.
+     */
+    public CompletableFuture<ClassificationResultDto> getClassificationAsync(String text) {
+        return readAsync(CLASSIFICATION, aiService.getClassificationModel(), text).thenApply(payload -> {
+            if (payload == null) return null;
+            try {
+                return decodeClassification(payload);
+            } catch (IOException e) {
+                log.warn("Ignoring undecodable cached classification: {}", e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Queues an LLM verdict. Fallback results from failed calls (confidence 0) are not stored.
+     */
+    public void putClassification(String text, ClassificationResultDto result) {
+        if (result == null || result.getConfidence() <= 0.0) return;
+        write(CLASSIFICATION, aiService.getClassificationModel(), text, encodeClassification(result));
+    }
+
+    @Scheduled(fixedDelayString = "${ai.persistent-cache.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) return;
+        List<AiCacheEntry> batch = new ArrayList<>(flushBatchSize);
+        while (pending.drainTo(batch, flushBatchSize) > 0) {
+            try {
+                limiter.run(DownstreamLimiter.Downstream.DB, () -> transactionTemplate.executeWithoutResult(
+                        status -> repository.insertAllIfAbsent(batch)));
+                written.addAndGet(batch.size());
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                log.warn("Dropped {} persistent cache writes: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ai.persistent-cache.purge-interval-ms:3600000}", initialDelayString = "${ai.persistent-cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!enabled) return;
+        LocalDateTime cutoff = ApplicationUtils.getCurrentUtcDateTime().minusDays(ttlDays);
+        Integer purged = limiter.call(DownstreamLimiter.Downstream.DB,
+                () -> transactionTemplate.execute(status -> repository.deleteCreatedBefore(cutoff)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} persistent cache entries older than {} days", purged, ttlDays);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        long lookupCount = lookups.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("lookups", lookupCount);
+        stats.put("hits", hits.get());
+        stats.put("hitRate", lookupCount == 0 ? null : (double) hits.get() / lookupCount);
+        stats.put("pendingWrites", pending.size());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+
+    // ================= HELPER METHODS =================
+
+    private CompletableFuture<byte[]> readAsync(String kind, String model, String text) {
+        if (!enabled || text == null || text.isBlank()) return CompletableFuture.completedFuture(null);
+        try {
+            return CompletableFuture.supplyAsync(() -> read(kind, model, text), eventKeyedExecutor.getExecutor());
+        } catch (RejectedExecutionException e) {
+            errors.incrementAndGet();
+            log.warn("Persistent cache read not scheduled: {}", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private byte[] read(String kind, String model, String text) {
+        lookups.incrementAndGet();
+        String key = key(kind, model, text);
+        try {
+            byte[] payload = limiter.call(DownstreamLimiter.Downstream.DB, () -> repository.findPayload(key).orElse(null));
+            if (payload != null) hits.incrementAndGet();
+            return payload;
+        } catch (Exception e) {
+            // Best effort: a cache read failure just means a provider call
+            errors.incrementAndGet();
+            log.warn("Persistent cache read failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String kind, String model, String text, byte[] payload) {
+        if (!enabled || text == null || text.isBlank()) return;
+        AiCacheEntry entry = AiCacheEntry.builder()
+                .cacheKey(key(kind, model, text))
+                .kind(kind)
+                .model(model)
+                .payload(payload)
+                .createdAt(ApplicationUtils.getCurrentUtcDateTime())
+                .build();
+        if (!pending.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private String key(String kind, String model, String text) {
+        // Whitespace-only differences (trailing newlines, double spaces) share an entry
+        String normalised = ApplicationUtils.normalizeText(text).replaceAll("\\s+", " ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((kind + '\n' + model + '\n' + namespace + '\n').getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(normalised.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] encodeClassification(ClassificationResultDto result) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(CLASSIFICATION_VERSION);
+            out.writeBoolean(result.isRelevant());
+            out.writeUTF(result.getCategory() == null ? "NONE" : result.getCategory());
+            out.writeBoolean(result.getTitle() != null);
+            if (result.getTitle() != null) out.writeUTF(result.getTitle());
+            out.writeDouble(result.getConfidence());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ClassificationResultDto decodeClassification(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readByte() != CLASSIFICATION_VERSION) {
+            throw new IOException("unknown classification payload version");
+        }
+        boolean relevant = in.readBoolean();
+        String category = in.readUTF();
+        String title = in.readBoolean() ? in.readUTF() : null;
+        double confidence = in.readDouble();
+        return new ClassificationResultDto(relevant, category, title, confidence);
+    }
+}
@@ -0,0 +1,158 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import com.nixo.fde.slackbot.utils.EmbeddingCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nearest-ticket search pushed down to Postgres with the pgvector extension.
+ * <p>
+ * Embeddings are mirrored into slack_messages.embedding_vec (see "SQL Queries/DDL Commands.sql"
+ * for the column and HNSW index) and queried by cosine distance, so the JVM never loads
+ * recent embeddings. Rows saved before the backend was switched on are backfilled at startup.
+ * <p>
+ * The HNSW index scan returns at most {@code hnsw.ef_search} rows before the category and time
+ * filters run, which starves small categories and narrow windows. Each search therefore raises
+ * {@code ef_search} for its transaction and, on pgvector 0.8+, turns on
+ * {@code hnsw.iterative_scan} so the scan keeps going until enough rows pass the filters.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "grouping.backend", havingValue = "pgvector")
+public class PgVectorTicketSearch implements VectorSearchInterface {
+
+    private final SlackMessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${grouping.time.window.hours:24}")
+    private int timeWindowHours;
+
+    // How many nearest messages to pull before collapsing them per ticket
+    @Value("${grouping.pgvector.candidates:50}")
+    private int candidates;
+
+    @Value("${grouping.pgvector.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    @Value("${grouping.pgvector.ef-search:200}")
+    private int efSearch;
+
+    // relaxed_order, strict_order or off; ignored before pgvector 0.8
+    @Value("${grouping.pgvector.iterative-scan:relaxed_order}")
+    private String iterativeScan;
+
+    private volatile Boolean iterativeScanSupported;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int backfilled = 0;
+        long lastId = 0;
+        List<Object[]> batch;
+        do {
+            // Paged by id: undecodable or empty rows are passed over, not re-read
+            batch = messageRepository.findMissingEmbeddingVectors(lastId, backfillBatchSize);
+            for (Object[] row : batch) {
+                Long id = ((Number) row[0]).longValue();
+                lastId = id;
+                try {
+                    Embedding embedding = EmbeddingCodec.decode((byte[]) row[1]);
+                    if (embedding.isEmpty()) continue;
+                    messageRepository.updateEmbeddingVector(id, toVectorLiteral(embedding));
+                    backfilled++;
+                } catch (Exception e) {
+                    log.warn("Skipping pgvector backfill for message {}: {}", id, e.getMessage());
+                }
+            }
+        } while (batch.size() == backfillBatchSize);
+
+        if (backfilled > 0) {
+            log.info("Backfilled {} pgvector embeddings", backfilled);
+        }
+    }
+
+    @Override
+    public void addMessage(Long messageId, Long ticketId, String category, LocalDateTime messageTime, Embedding embedding) {
+        if (messageId == null || embedding == null || embedding.isEmpty()) return;
+        messageRepository.updateEmbeddingVector(messageId, toVectorLiteral(embedding));
+    }
+
+    @Override
+    public List<TicketMatch> findNearestTickets(Embedding query, String category, int k) {
+        if (query == null || query.isEmpty() || category == null) return List.of();
+
+        LocalDateTime since = ApplicationUtils.getCurrentUtcDateTime().minusHours(timeWindowHours);
+        int limit = Math.max(candidates, k);
+        // SET LOCAL only lasts for the transaction, so the settings and the query must share one
+        List<SlackMessageRepository.TicketSimilarity> rows = transactionTemplate.execute(status -> {
+            applyScanSettings(limit);
+            return messageRepository.findNearestTickets(toVectorLiteral(query), category.toUpperCase(), since, limit, k);
+        });
+        if (rows == null) return List.of();
+
+        List<TicketMatch> matches = new ArrayList<>(rows.size());
+        for (SlackMessageRepository.TicketSimilarity row : rows) {
+            matches.add(new TicketMatch(row.getTicketId(), row.getSimilarity()));
+        }
+        return matches;
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void applyScanSettings(int limit) {
+        // pgvector caps ef_search at 1000
+        messageRepository.setLocalSetting("hnsw.ef_search", String.valueOf(Math.min(1000, Math.max(efSearch, limit))));
+        if (!"off".equalsIgnoreCase(iterativeScan) && supportsIterativeScan()) {
+            messageRepository.setLocalSetting("hnsw.iterative_scan", iterativeScan);
+        }
+    }
+
+    private boolean supportsIterativeScan() {
+        Boolean supported = iterativeScanSupported;
+        if (supported != null) return supported;
+
+        String version = messageRepository.findPgvectorVersion();
+        if (version == null) return false; // Extension not installed yet; check again next time
+        supported = isAtLeast(version, 0, 8);
+        if (!supported) {
+            log.warn("pgvector {} has no iterative index scans; filtered searches are limited to hnsw.ef_search rows", version);
+        }
+        iterativeScanSupported = supported;
+        return supported;
+    }
+
+    private static boolean isAtLeast(String version, int major, int minor) {
+        String[] parts = version.split("\\.");
+        try {
+            int actualMajor = Integer.parseInt(parts[0]);
+            int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // pgvector text input format: [v1,v2,...]
+    private static String toVectorLiteral(Embedding embedding) {
+        float[] values = embedding.getValues();
+        StringBuilder sb = new StringBuilder(values.length * 12 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.utils.HashedLogisticRegression;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local relevance model that answers the obvious "irrelevant" cases (thanks, +1, emoji-only)
+ * without an LLM call.
+ * <p>
+ * A {@link HashedLogisticRegression} is trained online from every LLM classification. Once it
+ * has seen {@code min-samples} labels, messages it scores below {@code skip-below} are returned
+ * as irrelevant directly. It never decides "relevant", since that needs the LLM's category and
+ * title. A small {@code audit-rate} of would-be skips still goes to the LLM so the skip
+ * precision stays measurable. Weights are saved to {@code model-file} periodically and on
+ * shutdown.
+ */
+@Slf4j
+@Service
+public class PreClassifierService {
+
+    @Value("${ai.classification.prefilter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.classification.prefilter.skip-below:0.05}")
+    private double skipBelow;
+
+    @Value("${ai.classification.prefilter.min-samples:500}")
+    private long minSamples;
+
+    @Value("${ai.classification.prefilter.audit-rate:0.05}")
+    private double auditRate;
+
+    @Value("${ai.classification.prefilter.hash-bits:18}")
+    private int hashBits;
+
+    @Value("${ai.classification.prefilter.learning-rate:0.5}")
+    private double learningRate;
+
+    @Value("${ai.classification.prefilter.l2:0.000001}")
+    private double l2;
+
+    @Value("${ai.classification.prefilter.model-file:prefilter.model}")
+    private String modelFile;
+
+    private HashedLogisticRegression model;
+
+    // All LLM-labelled messages: does the model's 0.5 cutoff agree with the LLM?
+    private final AtomicLong llmLabelled = new AtomicLong();
+    private final AtomicLong agreements = new AtomicLong();
+    // Of those, the ones below skip-below, and how many the LLM actually called relevant
+    private final AtomicLong wouldSkip = new AtomicLong();
+    private final AtomicLong wouldSkipButRelevant = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong audited = new AtomicLong();
+
+    @Getter
+    @AllArgsConstructor
+    public static class Prediction {
+        private final double relevantProbability;
+        private final boolean skip;
+    }
+
+    @PostConstruct
+    public void init() {
+        model = new HashedLogisticRegression(hashBits, learningRate, l2);
+        Path path = Path.of(modelFile);
+        if (!enabled || !Files.exists(path)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (model.readFrom(in)) {
+                log.info("Pre-classifier loaded from {} ({} training samples)", path, model.getSamples());
+            } else {
+                log.warn("Ignoring pre-classifier model {}: written with different settings", path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not load pre-classifier model {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${ai.classification.prefilter.save-interval-ms:300000}")
+    public void save() {
+        if (!enabled || model.getSamples() == 0) return;
+        Path path = Path.of(modelFile);
+        Path tmp = Path.of(modelFile + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            model.writeTo(out);
+        } catch (IOException e) {
+            log.warn("Could not save pre-classifier model: {}", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save pre-classifier model: {}", e.getMessage());
+        }
+    }
+
+    public Prediction predict(String text) {
+        if (!enabled) return new Prediction(1.0, false);
+        double p = model.predict(text);
+        boolean confident = model.getSamples() >= minSamples && p < skipBelow;
+        if (confident && ThreadLocalRandom.current().nextDouble() < auditRate) {
+            audited.incrementAndGet();
+            confident = false;
+        }
+        if (confident) skipped.incrementAndGet();
+        return new Prediction(p, confident);
+    }
+
+    public ClassificationResultDto toResult(Prediction prediction) {
+        return new ClassificationResultDto(false, "NONE", null, 1.0 - prediction.getRelevantProbability());
+    }
+
+    /**
+     * Scores the earlier prediction against the LLM's label and trains on it. Fallback results
+     * from failed LLM calls (confidence 0) are not labels and are ignored.
+     */
+    public void learn(String text, Prediction prediction, ClassificationResultDto llmResult) {
+        if (!enabled || llmResult == null || llmResult.getConfidence() <= 0.0) return;
+        boolean relevant = llmResult.isRelevant();
+
+        llmLabelled.incrementAndGet();
+        if ((prediction.getRelevantProbability() >= 0.5) == relevant) agreements.incrementAndGet();
+        if (prediction.getRelevantProbability() < skipBelow) {
+            wouldSkip.incrementAndGet();
+            if (relevant) wouldSkipButRelevant.incrementAndGet();
+        }
+        model.train(text, relevant);
+    }
+
+    public Map<String, Object> getStats() {
+        long labelled = llmLabelled.get();
+        long wouldSkipCount = wouldSkip.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("trainingSamples", model.getSamples());
+        stats.put("active", model.getSamples() >= minSamples);
+        stats.put("skipBelow", skipBelow);
+        stats.put("llmLabelled", labelled);
+        stats.put("agreementRate", labelled == 0 ? null : (double) agreements.get() / labelled);
+        stats.put("wouldSkip", wouldSkipCount);
+        stats.put("skipPrecision", wouldSkipCount == 0 ? null : 1.0 - (double) wouldSkipButRelevant.get() / wouldSkipCount);
+        stats.put("skipped", skipped.get());
+        stats.put("audited", audited.get());
+        return stats;
+    }
+}
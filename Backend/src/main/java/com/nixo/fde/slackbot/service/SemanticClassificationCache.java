@@ -0,0 +1,282 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.utils.MinHash;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider-agnostic classification cache that also matches re-worded messages.
+ * <p>
+ * Each LLM verdict is stored under the MinHash signature of the message's word set. A lookup
+ * collects candidates that share an LSH band, picks the one with the highest exact Jaccard
+ * similarity, and reuses its verdict if that similarity reaches {@code min-jaccard}. Messages
+ * shorter than {@code min-tokens} words only match an identical word set. With
+ * {@code confirm-with-embedding}, a match must also pass an embedding cosine check before it is
+ * reused; the embeddings are fetched asynchronously, so the lookup then completes later.
+ * <p>
+ * A sample of hits ({@code audit-rate}) is still sent to the LLM, and the share of hits where the
+ * LLM disagrees is reported as the false-reuse rate.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SemanticClassificationCache {
+
+    private final EmbeddingBatchService embeddingService;
+
+    @Value("${ai.classification.semantic-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.classification.semantic-cache.max-entries:20000}")
+    private int maxEntries;
+
+    @Value("${ai.classification.semantic-cache.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${ai.classification.semantic-cache.min-jaccard:0.8}")
+    private double minJaccard;
+
+    @Value("${ai.classification.semantic-cache.min-tokens:4}")
+    private int minTokens;
+
+    @Value("${ai.classification.semantic-cache.bands:8}")
+    private int bands;
+
+    @Value("${ai.classification.semantic-cache.rows:4}")
+    private int rows;
+
+    @Value("${ai.classification.semantic-cache.confirm-with-embedding:false}")
+    private boolean confirmWithEmbedding;
+
+    @Value("${ai.classification.semantic-cache.confirm-similarity:0.92}")
+    private double confirmSimilarity;
+
+    @Value("${ai.classification.semantic-cache.audit-rate:0.02}")
+    private double auditRate;
+
+    private MinHash minHash;
+    private long nextId;
+    // Insertion order doubles as age order for TTL and size eviction
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>();
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong rejectedByEmbedding = new AtomicLong();
+    private final AtomicLong audits = new AtomicLong();
+    private final AtomicLong falseReuses = new AtomicLong();
+
+    private static final class Entry {
+        final long id;
+        final Set<String> tokens;
+        final long[] bandKeys;
+        final String text;
+        final ClassificationResultDto result;
+        final long createdAt;
+
+        Entry(long id, Set<String> tokens, long[] bandKeys, String text, ClassificationResultDto result) {
+            this.id = id;
+            this.tokens = tokens;
+            this.bandKeys = bandKeys;
+            this.text = text;
+            this.result = result;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * A reusable verdict and whether this hit was picked for auditing against the LLM.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final ClassificationResultDto result;
+        private final boolean audit;
+    }
+
+    @PostConstruct
+    public void init() {
+        minHash = new MinHash(bands, rows);
+    }
+
+    /**
+     * Completes with a reusable verdict for the text, or null. Completes immediately unless the
+     * best match still needs the embedding check, which goes through the async embedding API so
+     * the caller never blocks on it. Never completes exceptionally.
+     */
+    public CompletableFuture<Hit> lookupAsync(String text) {
+        if (!enabled) return CompletableFuture.completedFuture(null);
+        lookups.incrementAndGet();
+
+        Set<String> tokens = MinHash.tokens(text);
+        if (tokens.isEmpty()) return CompletableFuture.completedFuture(null);
+        long[] bandKeys = bandKeys(tokens);
+        double required = tokens.size() < minTokens ? 1.0 : minJaccard;
+
+        // Entries are immutable, so only the bucket walk holds the lock; scoring runs outside it
+        Entry best = null;
+        double bestSimilarity = 0;
+        for (Entry candidate : candidates(bandKeys)) {
+            double similarity = MinHash.jaccard(tokens, candidate.tokens);
+            if (similarity >= required && similarity > bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        if (best == null) return CompletableFuture.completedFuture(null);
+
+        if (bestSimilarity < 1.0 && confirmWithEmbedding) {
+            Entry match = best;
+            return embeddingsAgreeAsync(text, match.text).thenApply(agree -> {
+                if (!agree) {
+                    rejectedByEmbedding.incrementAndGet();
+                    return null;
+                }
+                return hit(match, false);
+            });
+        }
+        return CompletableFuture.completedFuture(hit(best, bestSimilarity >= 1.0));
+    }
+
+    /**
+     * Records whether an audited hit's cached verdict matched the LLM's fresh one.
+     */
+    public void recordAudit(ClassificationResultDto cached, ClassificationResultDto fresh) {
+        if (fresh == null || fresh.getConfidence() <= 0.0) return;
+        boolean same = cached.isRelevant() == fresh.isRelevant()
+                && (!fresh.isRelevant() || Objects.equals(cached.getCategory(), fresh.getCategory()));
+        if (!same) {
+            falseReuses.incrementAndGet();
+            log.info("Semantic cache audit mismatch: cached {}/{} vs LLM {}/{}",
+                    cached.isRelevant(), cached.getCategory(), fresh.isRelevant(), fresh.getCategory());
+        }
+    }
+
+    /**
+     * Stores an LLM verdict. Fallback results from failed calls (confidence 0) are not cached.
+     */
+    public void put(String text, ClassificationResultDto result) {
+        if (!enabled || result == null || result.getConfidence() <= 0.0) return;
+        Set<String> tokens = MinHash.tokens(text);
+        if (tokens.isEmpty()) return;
+        long[] bandKeys = bandKeys(tokens);
+
+        synchronized (this) {
+            Entry entry = new Entry(nextId++, tokens, bandKeys, text, result);
+            entries.put(entry.id, entry);
+            for (long key : bandKeys) {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+            }
+            while (entries.size() > maxEntries) {
+                remove(entries.values().iterator().next());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long lookupCount = lookups.get();
+        long hitCount = hits.get();
+        long auditCount = audits.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (this) {
+            stats.put("entries", entries.size());
+        }
+        stats.put("lookups", lookupCount);
+        stats.put("hits", hitCount);
+        stats.put("exactHits", exactHits.get());
+        stats.put("hitRate", lookupCount == 0 ? null : (double) hitCount / lookupCount);
+        stats.put("rejectedByEmbedding", rejectedByEmbedding.get());
+        stats.put("audits", auditCount);
+        stats.put("falseReuses", falseReuses.get());
+        stats.put("falseReuseRate", auditCount == 0 ? null : (double) falseReuses.get() / auditCount);
+        return stats;
+    }
+
+    // ================= HELPER METHODS =================
+
+    private long[] bandKeys(Set<String> tokens) {
+        long[] signature = minHash.signature(tokens);
+        long[] keys = new long[minHash.getBands()];
+        for (int band = 0; band < keys.length; band++) {
+            keys[band] = minHash.bandKey(signature, band);
+        }
+        return keys;
+    }
+
+    // Distinct entries sharing a band with the query; an entry sits in one bucket per band
+    private synchronized Collection<Entry> candidates(long[] bandKeys) {
+        evictExpired();
+        Set<Entry> candidates = new HashSet<>();
+        for (long key : bandKeys) {
+            List<Entry> bucket = buckets.get(key);
+            if (bucket != null) candidates.addAll(bucket);
+        }
+        return candidates;
+    }
+
+    private Hit hit(Entry entry, boolean exact) {
+        hits.incrementAndGet();
+        if (exact) exactHits.incrementAndGet();
+        boolean audit = ThreadLocalRandom.current().nextDouble() < auditRate;
+        if (audit) audits.incrementAndGet();
+        return new Hit(entry.result, audit);
+    }
+
+    // Both texts go through the embedding batcher (and its caches) without blocking
+    private CompletableFuture<Boolean> embeddingsAgreeAsync(String text, String cachedText) {
+        CompletableFuture<Embedding> a = embeddingService.generateEmbeddingAsync(text);
+        CompletableFuture<Embedding> b = embeddingService.generateEmbeddingAsync(cachedText);
+        return a.thenCombine(b, (first, second) -> first != null && second != null
+                && !first.isEmpty() && !second.isEmpty()
+                && first.cosineSimilarity(second) >= confirmSimilarity);
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(ttlHours);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.createdAt >= cutoff) break;
+            it.remove();
+            unindex(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.id);
+        unindex(entry);
+    }
+
+    private void unindex(Entry entry) {
+        for (long key : entry.bandKeys) {
+            List<Entry> bucket = buckets.get(key);
+            if (bucket == null) continue;
+            bucket.remove(entry);
+            if (bucket.isEmpty()) buckets.remove(key);
+        }
+    }
+}
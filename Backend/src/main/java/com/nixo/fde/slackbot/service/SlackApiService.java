@@ -2,17 +2,19 @@ package com.nixo.fde.slackbot.service;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.nixo.fde.slackbot.config.CacheConfig;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
@@ -22,11 +24,20 @@ public class SlackApiService {
     @Value("${slack.bot.token}")
     private String botToken;
 
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private final OkHttpClient httpClient;
+    private final DownstreamLimiter limiter;
+    private final CacheManager cacheManager;
     private final Gson gson = new Gson();
 
-    // Cache to avoid repeated API calls for same user
-    private final Map<String, String> userNameCache = new ConcurrentHashMap<>();
+    // Caches to avoid repeated API calls for the same user/channel (bounded, expire so renames show up)
+    private Cache<String, String> userNameCache;
+    private Cache<String, String> channelNameCache;
+
+    @PostConstruct
+    public void init() {
+        userNameCache = CacheConfig.nativeCache(cacheManager, CacheConfig.SLACK_USER_NAMES);
+        channelNameCache = CacheConfig.nativeCache(cacheManager, CacheConfig.SLACK_CHANNEL_NAMES);
+    }
 
     /**
      * Get user's real name from Slack API
@@ -39,10 +50,15 @@ public class SlackApiService {
         }
 
         // Check cache first
-        if (userNameCache.containsKey(userId)) {
-            return userNameCache.get(userId);
+        String cached = userNameCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
         }
 
+        return limiter.call(DownstreamLimiter.Downstream.SLACK, () -> fetchUserRealName(userId));
+    }
+
+    private String fetchUserRealName(String userId) {
         try {
             String url = "https://slack.com/api/users.info?user=" + userId;
 
@@ -107,6 +123,15 @@ public class SlackApiService {
             return "unknown";
         }
 
+        String cached = channelNameCache.getIfPresent(channelId);
+        if (cached != null) {
+            return cached;
+        }
+
+        return limiter.call(DownstreamLimiter.Downstream.SLACK, () -> fetchChannelName(channelId));
+    }
+
+    private String fetchChannelName(String channelId) {
         try {
             String url = "https://slack.com/api/conversations.info?channel=" + channelId;
 
@@ -127,8 +152,9 @@ public class SlackApiService {
 
                 if (jsonResponse.get("ok").getAsBoolean()) {
                     JsonObject channel = jsonResponse.getAsJsonObject("channel");
-                    String channelName = channel.get("name").getAsString();
-                    return "#" + channelName;
+                    String channelName = "#" + channel.get("name").getAsString();
+                    channelNameCache.put(channelId, channelName);
+                    return channelName;
                 }
             }
         } catch (Exception e) {
@@ -139,10 +165,26 @@ public class SlackApiService {
     }
 
     /**
-     * Clear user name cache (useful for testing or when users change names)
+     * Cached real name for the user, or null if it has not been resolved yet. Never calls Slack,
+     * for list views that must stay one query regardless of how many users they show.
+     */
+    public String getCachedUserRealName(String userId) {
+        return userId == null ? null : userNameCache.getIfPresent(userId);
+    }
+
+    /**
+     * Cached channel name, or null if it has not been resolved yet. Never calls Slack.
+     */
+    public String getCachedChannelName(String channelId) {
+        return channelId == null ? null : channelNameCache.getIfPresent(channelId);
+    }
+
+    /**
+     * Clear user and channel name caches (useful for testing or when users change names)
      */
     public void clearCache() {
-        userNameCache.clear();
-        log.info("User name cache cleared");
+        userNameCache.invalidateAll();
+        channelNameCache.invalidateAll();
+        log.info("User and channel name caches cleared");
     }
 }
\ No newline at end of file
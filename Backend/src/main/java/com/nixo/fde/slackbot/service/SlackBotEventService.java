@@ -4,105 +4,182 @@ import com.google.gson.Gson;
 import com.nixo.fde.slackbot.models.SlackMessage;
 import com.nixo.fde.slackbot.models.SlackTicket;
 import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
 import com.nixo.fde.slackbot.payload.SlackEventDto;
 import com.nixo.fde.slackbot.payload.SlackEventsDetailsDto;
 import com.nixo.fde.slackbot.payload.SlackTicketDto;
 import com.nixo.fde.slackbot.repository.SlackMessageRepository;
 import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import com.nixo.fde.slackbot.utils.KeyedSerialExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.nixo.fde.slackbot.service.DownstreamLimiter.Downstream.AI;
+import static com.nixo.fde.slackbot.service.DownstreamLimiter.Downstream.DB;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SlackBotEventService {
-    private final AIServiceInterface aiService;
+    private final MessageClassificationService classificationService;
     private final MessageGroupingService groupingService;
     private final SlackMessageRepository messageRepository;
     private final WebSocketNotificationService notificationService;
+    private final DownstreamLimiter limiter;
+    private final KeyedSerialExecutor eventKeyedExecutor;
+    private final ThreadRoutingIndex threadRoutingIndex;
+    private final EventDeduplicationService deduplicationService;
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    // Trades embedding spend on irrelevant messages for lower latency on new tickets
+    @Value("${grouping.speculative-embedding.enabled:false}")
+    private boolean speculativeEmbeddingEnabled;
+
+    /**
+     * Completes when the event has been fully handled (successfully or not), so the journal
+     * consumer knows when it may commit past it.
+     * <p>
+     * Events are keyed by conversation: a reply's thread_ts, or a top-level message's own ts (which
+     * its replies will carry as thread_ts). Events for one conversation run in order; different
+     * conversations run in parallel. While an event waits on the AI provider no worker is held:
+     * classification and the embedding are composed as futures, and the grouping / notification
+     * step resumes on the event executor once they complete.
+     */
+    public CompletableFuture<Void> processEventAsync(SlackEventDto eventDto) {
+        return eventKeyedExecutor.submitAsync(conversationKey(eventDto), () -> processEvent(eventDto));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private String conversationKey(SlackEventDto eventDto) {
+        SlackEventsDetailsDto event = eventDto.getEvent();
+        if (event == null) return eventDto.getEventId();
+        String threadTs = event.getThreadTs();
+        return threadTs != null && !threadTs.isEmpty() ? threadTs : event.getTimestamp();
+    }
 
-    @Async
-    public void processEventAsync(SlackEventDto eventDto) {
+    /**
+     * Never completes exceptionally; failures are logged.
+     */
+    private CompletableFuture<Void> processEvent(SlackEventDto eventDto) {
         try {
             SlackEventsDetailsDto event = eventDto.getEvent();
 
-            // 1. Fast Deduplication (Database Index Check)
-            if (messageRepository.existsBySlackTimestamp(event.getTimestamp())) {
-                return;
+            // 1. Fast Deduplication (in-memory filter; DB index check only on a filter hit)
+            if (deduplicationService.isAlreadyProcessed(event.getTimestamp())) {
+                return DONE;
             }
 
             if(event.getText() == null){
-                return;
+                return DONE;
             }
 
-            ClassificationResultDto classification = null;
             String threadTs = event.getThreadTs();
+            ThreadRoutingIndex.Route route = null;
 
             // --- OPTIMIZATION 1: THREAD CONTEXT CHECK (Skip Classification AI) ---
             if (threadTs != null && !threadTs.isEmpty()) {
-                // Check if this thread already belongs to a ticket
-                List<SlackMessage> parentMessages = messageRepository.findBySlackTimestampWithTicket(threadTs);
-
-                if (!parentMessages.isEmpty()) {
-                    SlackTicket existingTicket = parentMessages.get(0).getTicket();
-                    log.info("Optimization: Inheriting context from Ticket {}. Skipping Classification AI.", existingTicket.getId());
-
-                    // Manually construct 'Relevant' result
-                    classification = new ClassificationResultDto(
-                            true,                           // Force Relevant
-                            existingTicket.getCategory(),   // Inherit Category
-                            existingTicket.getTitle(),      // Inherit Title
-                            1.0                             // Max Confidence
-                    );
+                // Check if this thread already belongs to a ticket (in-memory first, DB on a miss)
+                route = threadRoutingIndex.get(threadTs);
+                if (route == null) {
+                    List<SlackMessage> parentMessages = limiter.call(DB, () -> messageRepository.findBySlackTimestampWithTicket(threadTs));
+                    if (!parentMessages.isEmpty()) {
+                        SlackTicket parentTicket = parentMessages.get(0).getTicket();
+                        route = new ThreadRoutingIndex.Route(parentTicket.getId(), parentTicket.getCategory(), parentTicket.getTitle());
+                        threadRoutingIndex.put(threadTs, route);
+                    }
                 }
             }
             // ---------------------------------------------------------------------
 
-            // 2. Classify (Only if we didn't find a thread match above)
-            if (classification == null) {
-                String normalizedText = ApplicationUtils.normalizeText(event.getText());
-                classification = aiService.classifyMessage(normalizedText);
+            if (route != null) {
+                log.info("Optimization: Inheriting context from Ticket {}. Skipping Classification AI.", route.getTicketId());
+
+                // Manually construct 'Relevant' result
+                ClassificationResultDto inherited = new ClassificationResultDto(
+                        true,                           // Force Relevant
+                        route.getCategory(),            // Inherit Category
+                        route.getTitle(),               // Inherit Title
+                        1.0                             // Max Confidence
+                );
+                // Grouping takes the thread fast path, which needs no embedding
+                groupAndNotify(event, inherited, null);
+                return DONE;
             }
 
-            if (!classification.isRelevant()) {
-                log.info("Irrelevant Message: {}", event.getText());
-                return;
-            }
+            // 2. Classify (Only if we didn't find a thread match above)
+            // No ticket to inherit, so grouping will need the embedding if the message is
+            // relevant: optionally request it now instead of after classification returns
+            CompletableFuture<Embedding> speculativeEmbedding = speculativeEmbeddingEnabled
+                    ? fetchEmbedding(event.getText())
+                    : null;
+            String normalizedText = ApplicationUtils.normalizeText(event.getText());
+            CompletableFuture<ClassificationResultDto> classification =
+                    limiter.callAsync(AI, () -> classificationService.classifyMessageAsync(normalizedText));
+
+            Executor executor = eventKeyedExecutor.getExecutor();
+            return classification
+                    .thenComposeAsync(result -> {
+                        if (!result.isRelevant()) {
+                            // Any speculative embedding is discarded (it stays in the embedding cache)
+                            log.info("Irrelevant Message: {}", event.getText());
+                            return DONE;
+                        }
+                        CompletableFuture<Embedding> embedding = speculativeEmbedding != null
+                                ? speculativeEmbedding
+                                : fetchEmbedding(event.getText());
+                        return embedding.thenAcceptAsync(e -> groupAndNotify(event, result, e), executor);
+                    }, executor)
+                    .exceptionally(e -> {
+                        log.error("Error processing event: {}", e.getMessage(), e);
+                        return null;
+                    });
+        } catch (Exception e) {
+            log.error("Error processing event: {}", e.getMessage(), e);
+            return DONE;
+        }
+    }
 
-            // 3. Find or Create Ticket
-            // We pass the whole aiService so groupingService can use it lazily if needed
-            SlackTicket ticket = groupingService.processMessage(
-                    event.getText(),
-                    event.getThreadTs(),
-                    classification,
-                    aiService,
-                    event.getUser(),
-                    event.getChannel(),
-                    event.getChannelType(),
-                    event.getTimestamp()
-            );
-
-            // 4. Notify Frontend
-            if (ticket != null) {
-                // Determine if it's new or updated based on message count
-                int messageCount = ticket.getMessages().size();
-                SlackTicketDto ticketDto = SlackTicketDto.fromEntity(ticket);
-
-                if (messageCount <= 1) {
-                    notificationService.notifyTicketCreated(ticketDto);
-                } else {
-                    notificationService.notifyTicketUpdated(ticketDto);
-                }
+    private CompletableFuture<Embedding> fetchEmbedding(String text) {
+        return limiter.callAsync(AI, () -> groupingService.prefetchEmbedding(text));
+    }
+
+    // Runs on an event worker: grouping and notification are blocking DB / WebSocket work
+    private void groupAndNotify(SlackEventsDetailsDto event, ClassificationResultDto classification, Embedding embedding) {
+        // 3. Find or Create Ticket
+        SlackTicket ticket = groupingService.processMessage(
+                event.getText(),
+                event.getThreadTs(),
+                classification,
+                event.getUser(),
+                event.getChannel(),
+                event.getChannelType(),
+                event.getTimestamp(),
+                embedding
+        );
+
+        deduplicationService.markProcessed(event.getTimestamp());
+
+        // 4. Notify Frontend
+        if (ticket != null) {
+            // Determine if it's new or updated based on message count
+            int messageCount = ticket.getMessageCount();
+            SlackTicketDto ticketDto = SlackTicketDto.fromEntity(ticket);
+
+            if (messageCount <= 1) {
+                notificationService.notifyTicketCreated(ticketDto);
             } else {
-                log.info("Silent update (duplicate content). No notification sent.");
+                notificationService.notifyTicketUpdated(ticketDto);
             }
-
-        } catch (Exception e) {
-            log.error("Error processing event: {}", e.getMessage(), e);
+        } else {
+            log.info("Silent update (duplicate content). No notification sent.");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.nixo.fde.slackbot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.nixo.fde.slackbot.config.CacheConfig;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bounded map from a Slack message ts to the ticket it was grouped into.
+ * <p>
+ * Replies carry their root's ts as thread_ts, so looking the thread_ts up here answers "which
+ * ticket does this thread belong to" without a query. Entries are added after the grouping
+ * transaction commits and warmed at startup from the most recent messages; a miss just falls
+ * back to the DB lookup. Tickets are never deleted, so entries cannot go stale.
+ * <p>
+ * Backed by the {@code thread-routes} Caffeine cache (bounded by cache.specs), so lookups from
+ * concurrent replies never contend on a shared lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ThreadRoutingIndex {
+
+    private static final int DEFAULT_WARM_ENTRIES = 100_000;
+
+    private final SlackMessageRepository messageRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${grouping.thread-index.warm-days:7}")
+    private int warmDays;
+
+    private Cache<String, Route> routes;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Route {
+        private final Long ticketId;
+        private final String category;
+        private final String title;
+    }
+
+    @PostConstruct
+    public void init() {
+        routes = CacheConfig.nativeCache(cacheManager, CacheConfig.THREAD_ROUTES);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = ApplicationUtils.getCurrentUtcDateTime().minusDays(warmDays);
+        // No point reading more rows than the cache keeps
+        int limit = (int) Math.min(Integer.MAX_VALUE, routes.policy().eviction()
+                .map(Policy.Eviction::getMaximum)
+                .orElse((long) DEFAULT_WARM_ENTRIES));
+        List<Object[]> rows = messageRepository.findRecentThreadRoutes(since, PageRequest.of(0, limit));
+
+        for (Object[] row : rows) {
+            put((String) row[0], new Route((Long) row[1], (String) row[2], (String) row[3]));
+        }
+        log.info("Thread routing index warmed with {} messages from the last {} days", rows.size(), warmDays);
+    }
+
+    public Route get(String slackTimestamp) {
+        if (slackTimestamp == null) return null;
+        return routes.getIfPresent(slackTimestamp);
+    }
+
+    public void put(String slackTimestamp, Route route) {
+        if (slackTimestamp == null || route == null || route.getTicketId() == null) return;
+        routes.put(slackTimestamp, route);
+    }
+
+    public long size() {
+        return routes.estimatedSize();
+    }
+}
@@ -0,0 +1,80 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.SlackTicketStatusDto;
+import com.nixo.fde.slackbot.repository.SlackTicketRepository;
+import com.nixo.fde.slackbot.repository.TicketCounterRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps the per-category open/total counters and the denormalised ticket columns in step with
+ * ticket writes. Ticket creation and status changes must go through here; each delta is applied
+ * in the caller's transaction, so a rollback undoes it too.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketCounterService {
+
+    private static final String OPEN = "OPEN";
+
+    private final TicketCounterRepository counterRepository;
+    private final SlackTicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int tickets = ticketRepository.backfillDenormalisedColumns();
+            if (tickets > 0) {
+                log.info("Backfilled message counters for {} tickets", tickets);
+            }
+            if (counterRepository.count() == 0 && ticketRepository.count() > 0) {
+                counterRepository.rebuild();
+                log.info("Rebuilt per-category ticket counters");
+            }
+        });
+    }
+
+    /**
+     * Call inside the transaction that inserts the ticket.
+     */
+    public void ticketCreated(SlackTicket ticket) {
+        counterRepository.add(ticket.getCategory(), OPEN.equals(ticket.getStatus()) ? 1 : 0, 1);
+    }
+
+    /**
+     * Changes the ticket's status and the open counter of its category in one transaction.
+     * The ticket row is locked first, so two concurrent changes of the same ticket cannot both
+     * see the old status and apply the same delta twice. Returns empty if the ticket does not exist.
+     */
+    public Optional<SlackTicket> updateStatus(Long ticketId, String newStatus) {
+        return transactionTemplate.execute(status -> ticketRepository.findByIdForUpdate(ticketId).map(ticket -> {
+            String oldStatus = ticket.getStatus();
+            ticket.setStatus(newStatus);
+            // updated_at is not updatable through the entity (see SlackTicket); bump it explicitly
+            LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+            ticketRepository.touch(ticket.getId(), now);
+            ticket.setUpdatedAt(now);
+            SlackTicket saved = ticketRepository.save(ticket);
+            long openDelta = (OPEN.equals(newStatus) ? 1 : 0) - (OPEN.equals(oldStatus) ? 1 : 0);
+            if (openDelta != 0) {
+                counterRepository.add(ticket.getCategory(), openDelta, 0);
+            }
+            return saved;
+        }));
+    }
+
+    public SlackTicketStatusDto getStats() {
+        return new SlackTicketStatusDto(counterRepository.sumTotal(), counterRepository.sumOpen());
+    }
+}
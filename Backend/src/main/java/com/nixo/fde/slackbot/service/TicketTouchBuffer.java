@@ -0,0 +1,119 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.repository.SlackTicketRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind stage for ticket activity bumps ({@code slack_tickets.updated_at}).
+ * <p>
+ * Every grouped message used to save the ticket just to move {@code updated_at}, an indexed
+ * column, so each message paid an extra round trip plus index maintenance on the hot ticket.
+ * Touches are now collected per ticket (keeping the latest time) and written by a background
+ * flush as one multi-row UPDATE per batch of tickets, however many messages arrived. A touch
+ * made inside a transaction is only queued once that transaction commits. A failed flush
+ * re-queues its touches; anything still pending at shutdown is flushed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketTouchBuffer {
+
+    private final SlackTicketRepository ticketRepository;
+    private final DownstreamLimiter limiter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${tickets.write-behind.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong touches = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Marks the ticket as active at {@code time}; the bump reaches the database on the next flush.
+     */
+    public void touch(Long ticketId, LocalDateTime time) {
+        if (ticketId == null || time == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(ticketId, time);
+                }
+            });
+        } else {
+            enqueue(ticketId, time);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Long ticketId : pending.keySet()) {
+            LocalDateTime time = pending.remove(ticketId);
+            if (time == null) continue;
+            batch.put(ticketId, time);
+            if (batch.size() >= flushBatchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingTickets", pending.size());
+        stats.put("touches", touches.get());
+        stats.put("written", written.get());
+        stats.put("coalesced", Math.max(0, touches.get() - written.get() - pending.size()));
+        stats.put("errors", errors.get());
+        return stats;
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void enqueue(Long ticketId, LocalDateTime time) {
+        touches.incrementAndGet();
+        pending.merge(ticketId, time, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    private void write(Map<Long, LocalDateTime> batch) {
+        try {
+            // One multi-row statement per batch rather than one UPDATE per ticket
+            limiter.run(DownstreamLimiter.Downstream.DB, () -> transactionTemplate.executeWithoutResult(
+                    status -> ticketRepository.touchAll(batch)));
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            // Put them back (keeping any newer touch) for the next flush
+            errors.incrementAndGet();
+            log.warn("Ticket touch flush of {} tickets failed, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach((ticketId, time) -> pending.merge(ticketId, time, (a, b) -> a.isAfter(b) ? a : b));
+        }
+    }
+}
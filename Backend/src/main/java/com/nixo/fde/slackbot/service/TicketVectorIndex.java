@@ -0,0 +1,239 @@
+package com.nixo.fde.slackbot.service;
+
+import com.google.gson.Gson;
+import com.nixo.fde.slackbot.models.SlackMessage;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import com.nixo.fde.slackbot.utils.EmbeddingCodec;
+import com.nixo.fde.slackbot.utils.HnswIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process approximate nearest neighbour index over per-ticket centroid vectors.
+ * <p>
+ * Each ticket keeps a running sum of its normalised message embeddings; the normalised sum
+ * (the centroid) is what gets indexed, so grouping compares one vector per ticket rather than
+ * one per message. One HNSW graph per ticket category. Warmed from the DB at startup, updated
+ * incrementally whenever a message with an embedding is saved, and compacted on a schedule to
+ * drop tickets with no activity inside the grouping time window.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "grouping.backend", havingValue = "memory", matchIfMissing = true)
+public class TicketVectorIndex implements VectorSearchInterface {
+
+    private final SlackMessageRepository messageRepository;
+    private final Gson gson = new Gson();
+
+    @Value("${grouping.time.window.hours:24}")
+    private int timeWindowHours;
+
+    @Value("${grouping.index.m:16}")
+    private int maxConnections;
+
+    @Value("${grouping.index.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${grouping.index.ef-search:48}")
+    private int efSearch;
+
+    private final Map<String, CategoryIndex> categories = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = ApplicationUtils.getCurrentUtcDateTime().minusHours(timeWindowHours);
+        List<SlackMessage> recentMessages = messageRepository.findRecentMessagesWithEmbeddings(since);
+
+        int indexed = 0;
+        for (SlackMessage msg : recentMessages) {
+            Embedding embedding = readEmbedding(msg);
+            if (embedding.isEmpty()) continue;
+            addMessage(msg.getId(), msg.getTicket().getId(), msg.getTicket().getCategory(), msg.getSlackMessageTime(), embedding);
+            indexed++;
+        }
+        log.info("Vector index warmed with {} messages from the last {}h ({} tickets)", indexed, timeWindowHours, size());
+    }
+
+    /**
+     * Fold a persisted message embedding into its ticket's centroid and re-index the ticket. Called
+     * inside a transaction, the update is applied once that transaction commits, so a rolled-back
+     * message never ends up in a centroid.
+     */
+    @Override
+    public void addMessage(Long messageId, Long ticketId, String category, LocalDateTime messageTime, Embedding embedding) {
+        if (ticketId == null || category == null || embedding == null || embedding.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(messageId, ticketId, category, messageTime, embedding);
+                }
+            });
+        } else {
+            index(messageId, ticketId, category, messageTime, embedding);
+        }
+    }
+
+    /**
+     * Top-k tickets in the category whose centroids are most similar to the query, best first.
+     */
+    @Override
+    public List<TicketMatch> findNearestTickets(Embedding query, String category, int k) {
+        if (query == null || query.isEmpty() || category == null) return List.of();
+
+        CategoryIndex index = categories.get(category.toUpperCase());
+        if (index == null) return List.of();
+
+        LocalDateTime since = ApplicationUtils.getCurrentUtcDateTime().minusHours(timeWindowHours);
+
+        List<HnswIndex.SearchResult> results;
+        index.lock.readLock().lock();
+        try {
+            results = index.graph.search(query.normalised(), k, efSearch, id -> {
+                TicketCentroid centroid = index.entries.get(id);
+                return centroid != null && !centroid.lastMessageTime.isBefore(since);
+            });
+        } finally {
+            index.lock.readLock().unlock();
+        }
+
+        List<TicketMatch> matches = new ArrayList<>(results.size());
+        for (HnswIndex.SearchResult result : results) {
+            matches.add(new TicketMatch(result.getId(), result.getSimilarity()));
+        }
+        return matches;
+    }
+
+    public int size() {
+        return categories.values().stream().mapToInt(index -> index.entries.size()).sum();
+    }
+
+    /**
+     * Drop tickets with no activity inside the time window and rebuild graphs that carry too many tombstones.
+     */
+    @Scheduled(fixedRateString = "${grouping.index.compaction-interval-ms:600000}")
+    public void compact() {
+        LocalDateTime since = ApplicationUtils.getCurrentUtcDateTime().minusHours(timeWindowHours);
+
+        categories.forEach((category, index) -> {
+            index.lock.writeLock().lock();
+            try {
+                index.entries.entrySet().removeIf(e -> {
+                    if (e.getValue().lastMessageTime.isBefore(since)) {
+                        index.graph.remove(e.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+
+                if (tooManyTombstones(index.graph)) {
+                    rebuild(category, index);
+                }
+            } finally {
+                index.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void index(Long messageId, Long ticketId, String category, LocalDateTime messageTime, Embedding embedding) {
+        float[] vector = embedding.normalised();
+        CategoryIndex index = categories.computeIfAbsent(category.toUpperCase(), k -> new CategoryIndex());
+        index.lock.writeLock().lock();
+        try {
+            TicketCentroid centroid = index.entries.get(ticketId);
+            if (centroid == null || centroid.sum.length != vector.length) {
+                centroid = new TicketCentroid(vector.length);
+                index.entries.put(ticketId, centroid);
+            }
+            // Warm-up runs alongside live traffic, so a message can arrive from both
+            if (!centroid.add(messageId, vector, messageTime)) return;
+            index.graph.add(ticketId, centroid.sum);
+
+            // Updates are in place; only compaction removes tickets, but don't let tombstones
+            // pile up between compactions either
+            if (tooManyTombstones(index.graph)) {
+                rebuild(category, index);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    // Tombstones still occupy search beams, so rebuild once they exceed a fifth of the live nodes
+    private static boolean tooManyTombstones(HnswIndex graph) {
+        return graph.getDeletedCount() > graph.size() / 5;
+    }
+
+    // Caller must hold the category's write lock
+    private void rebuild(String category, CategoryIndex index) {
+        HnswIndex rebuilt = new HnswIndex(maxConnections, efConstruction);
+        index.entries.forEach((ticketId, centroid) -> rebuilt.add(ticketId, centroid.sum));
+        index.graph = rebuilt;
+        log.debug("Rebuilt vector index for {} with {} tickets", category, rebuilt.size());
+    }
+
+    private Embedding readEmbedding(SlackMessage msg) {
+        try {
+            if (msg.getEmbeddingData() != null) {
+                return EmbeddingCodec.decode(msg.getEmbeddingData());
+            }
+            // Legacy JSON row the startup migration has not converted (e.g. migration disabled)
+            return Embedding.of(gson.fromJson(msg.getEmbedding(), float[].class));
+        } catch (Exception e) { return Embedding.empty(); }
+    }
+
+    private class CategoryIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, TicketCentroid> entries = new ConcurrentHashMap<>();
+        HnswIndex graph = new HnswIndex(maxConnections, efConstruction);
+    }
+
+    /**
+     * Running sum of a ticket's normalised message vectors. The graph normalises it on insert,
+     * which turns the sum into the centroid direction without a separate division. Remembers which
+     * messages it has summed so a repeat is ignored.
+     */
+    private static class TicketCentroid {
+        final float[] sum;
+        final Set<Long> messageIds = new HashSet<>();
+        int messageCount;
+        LocalDateTime lastMessageTime = LocalDateTime.MIN;
+
+        TicketCentroid(int dimensions) {
+            this.sum = new float[dimensions];
+        }
+
+        // False if the message was already summed
+        boolean add(Long messageId, float[] normalisedVector, LocalDateTime messageTime) {
+            if (messageId != null && !messageIds.add(messageId)) return false;
+            for (int i = 0; i < sum.length; i++) sum[i] += normalisedVector[i];
+            messageCount++;
+            if (messageTime != null && messageTime.isAfter(lastMessageTime)) lastMessageTime = messageTime;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.Embedding;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Nearest-ticket search used by grouping. Selected with grouping.backend:
+ * 'memory' (in-JVM HNSW index, default) or 'pgvector' (similarity search pushed down to Postgres).
+ */
+public interface VectorSearchInterface {
+    /**
+     * Record the embedding of a message that was just persisted. In-memory implementations defer
+     * the update until the surrounding transaction commits.
+     */
+    void addMessage(Long messageId, Long ticketId, String category, LocalDateTime messageTime, Embedding embedding);
+
+    /**
+     * Top-k tickets in the category most similar to the query within the grouping time window, best first
+     */
+    List<TicketMatch> findNearestTickets(Embedding query, String category, int k);
+
+    @Getter
+    @AllArgsConstructor
+    class TicketMatch {
+        private final Long ticketId;
+        private final double similarity;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Date;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 
 @Slf4j
@@ -79,6 +80,67 @@ public class ApplicationUtils {
         return d[m][n];
     }
 
+    /**
+     * True if the edit similarity of the two strings (as in {@link #calculateStringSimilarity})
+     * is at least {@code minSimilarity}, without computing the full distance matrix.
+     */
+    public static boolean isStringSimilar(String s1, String s2, double minSimilarity) {
+        int longerLength = Math.max(s1.length(), s2.length());
+        if (longerLength == 0) return true;
+        // Epsilon so e.g. 10 chars at 0.90 allows exactly one edit despite 1 - 0.9 < 0.1
+        int maxDistance = (int) Math.floor(longerLength * (1.0 - minSimilarity) + 1e-9);
+        return getBoundedLevenshteinDistance(s1, s2, maxDistance) <= maxDistance;
+    }
+
+    /**
+     * Levenshtein distance if it is at most {@code maxDistance}, otherwise {@code maxDistance + 1}.
+     * Only the diagonal band {@code |i - j| <= maxDistance} is filled, using two band-wide rows,
+     * and the scan stops as soon as a whole row exceeds the bound: O(maxDistance * length) time.
+     */
+    public static int getBoundedLevenshteinDistance(String s, String t, int maxDistance) {
+        int m = s.length(), n = t.length();
+        int over = maxDistance + 1;
+        if (maxDistance < 0) return over;
+        if (Math.abs(m - n) > maxDistance) return over;
+        if (m == 0 || n == 0) return Math.max(m, n);
+
+        // Cell (i, j) lives at index (j - i + maxDistance) + 1; the slots at both ends stay "over"
+        int width = 2 * maxDistance + 1;
+        int[] prev = new int[width + 2];
+        int[] curr = new int[width + 2];
+        Arrays.fill(prev, over);
+        for (int j = 0; j <= Math.min(n, maxDistance); j++) {
+            prev[j + maxDistance + 1] = j;
+        }
+
+        for (int i = 1; i <= m; i++) {
+            Arrays.fill(curr, over);
+            int rowMin = over;
+            char c = s.charAt(i - 1);
+            for (int k = 0; k < width; k++) {
+                int j = i + k - maxDistance;
+                if (j < 0 || j > n) continue;
+                int value;
+                if (j == 0) {
+                    value = i;
+                } else {
+                    int cost = c == t.charAt(j - 1) ? 0 : 1;
+                    value = Math.min(prev[k + 1] + cost,        // substitution / match
+                            Math.min(prev[k + 2] + 1,           // deletion
+                                    curr[k] + 1));              // insertion
+                }
+                value = Math.min(value, over);
+                curr[k + 1] = value;
+                if (value < rowMin) rowMin = value;
+            }
+            if (rowMin > maxDistance) return over;
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[n - m + maxDistance + 1];
+    }
+
     public static String normalizeText(String text) {
         if (text == null) return "";
         String trimmed = text.trim();
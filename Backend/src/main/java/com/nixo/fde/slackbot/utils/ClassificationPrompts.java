@@ -0,0 +1,118 @@
+package com.nixo.fde.slackbot.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Provider-independent half of message classification: the batch prompt and the parsing of
+ * model output back into {@link ClassificationResultDto}s. Both AI providers send the same
+ * prompt and get the same JSON shape back; only the transport differs.
+ */
+@Slf4j
+public final class ClassificationPrompts {
+
+    private static final Gson GSON = new Gson();
+
+    private ClassificationPrompts() {
+    }
+
+    public static String buildBatchClassificationPrompt(List<String> messageTexts) {
+        return String.format("""
+            Analyze each of these Slack messages and determine if it's relevant to a Forward Deployed Engineer (FDE).
+
+            Messages (JSON array, classify each one independently):
+            %s
+
+            A message is RELEVANT if it's:
+            - A bug report (something is broken or not working)
+            - A feature request (asking for new functionality)
+            - A support question (asking how to do something)
+            - A product question (asking about capabilities or limitations)
+
+            A message is IRRELEVANT if it's:
+            - Casual conversation ("thanks", "sounds good", "let's get dinner")
+            - Social messages ("good morning", "see you tomorrow")
+            - Acknowledgments ("got it", "ok", "sure")
+            - Off-topic discussion
+
+            Respond ONLY with a valid JSON array, one object per message, with no markdown, no code blocks, no additional text.
+            "index" is the message's zero-based position in the input array:
+            [{"index":0,"relevant":true,"category":"BUG","title":"short summary","confidence":0.95}]
+
+            Categories: BUG, FEATURE_REQUEST, SUPPORT, QUESTION, NONE
+            If irrelevant, use: {"index":<message index>,"relevant":false,"category":"NONE","title":null,"confidence":0.9}
+            """, GSON.toJson(messageTexts));
+    }
+
+    /**
+     * Parses a single classification object; throws if the response is not one.
+     */
+    public static ClassificationResultDto parseClassification(String response) {
+        JsonObject json = GSON.fromJson(stripCodeFences(response), JsonObject.class);
+        return toClassificationResult(json);
+    }
+
+    /**
+     * Fills the slots it can parse; malformed or missing items stay null for the caller's fallback.
+     * {@code provider} only labels the log lines.
+     */
+    public static void parseBatchClassificationResponse(String provider, String response,
+                                                        List<ClassificationResultDto> results) {
+        JsonArray items;
+        try {
+            items = GSON.fromJson(stripCodeFences(response), JsonArray.class);
+        } catch (Exception e) {
+            log.error("Error parsing {} batch response: {}", provider, e.getMessage());
+            log.debug("Response was: {}", response);
+            return;
+        }
+        if (items == null) return;
+
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                JsonObject json = items.get(i).getAsJsonObject();
+                int index = json.has("index") ? json.get("index").getAsInt() : i;
+                if (index >= 0 && index < results.size() && results.get(index) == null) {
+                    results.set(index, toClassificationResult(json));
+                }
+            } catch (Exception e) {
+                log.debug("Skipping malformed batch item {}: {}", i, e.getMessage());
+            }
+        }
+    }
+
+    public static String stripCodeFences(String response) {
+        String jsonStr = response.trim();
+
+        // Remove markdown code blocks if present
+        if (jsonStr.startsWith("```json")) {
+            jsonStr = jsonStr.substring(7);
+        } else if (jsonStr.startsWith("```")) {
+            jsonStr = jsonStr.substring(3);
+        }
+
+        if (jsonStr.endsWith("```")) {
+            jsonStr = jsonStr.substring(0, jsonStr.length() - 3);
+        }
+
+        return jsonStr.trim();
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static ClassificationResultDto toClassificationResult(JsonObject json) {
+        boolean relevant = json.get("relevant").getAsBoolean();
+        String category = json.get("category").getAsString();
+        String title = json.has("title") && !json.get("title").isJsonNull()
+                ? json.get("title").getAsString()
+                : null;
+        double confidence = json.get("confidence").getAsDouble();
+
+        return new ClassificationResultDto(relevant, category, title, confidence);
+    }
+}
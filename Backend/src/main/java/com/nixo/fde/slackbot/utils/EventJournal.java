@@ -0,0 +1,304 @@
+package com.nixo.fde.slackbot.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal over fixed-size memory-mapped segment files.
+ * <p>
+ * Offsets are logical byte positions across the whole journal; a segment file is named after
+ * the offset of its first byte and covers {@code [base, base + segmentSize)}. Each record is
+ * {@code [int length][int crc32][payload]}. A zero length marks the end of the written data in
+ * a segment (files are pre-sized, so unwritten space reads as zeros).
+ * <p>
+ * {@link #sync} is group-committed: concurrent appenders waiting on the same force share one
+ * {@code msync}. The consumer's committed offset is kept in a separate file, replaced atomically.
+ */
+@Slf4j
+public class EventJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OFFSET_FILE = "consumer.offset";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object syncLock = new Object();
+
+    private Segment active;
+    private volatile long writeOffset;
+    private volatile long durableOffset;
+
+    public EventJournal(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Appends one record and returns the offset just past it. The record is visible to readers
+     * immediately but is only crash-safe once {@link #sync} has been called with that offset.
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        int recordSize = HEADER_BYTES + payload.length;
+        if (payload.length == 0 || recordSize > segmentSize - HEADER_BYTES) {
+            throw new IllegalArgumentException("Record size " + payload.length + " not supported by segment size " + segmentSize);
+        }
+
+        int position = (int) (writeOffset - active.base);
+        // Keep room for the trailing zero-length end marker
+        if (position + recordSize > segmentSize - HEADER_BYTES) {
+            roll();
+            position = 0;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = active.buffer.duplicate();
+        buffer.position(position);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+
+        writeOffset = active.base + position + recordSize;
+        return writeOffset;
+    }
+
+    /**
+     * Blocks until everything up to {@code offset} is on disk. Callers arriving while a force is
+     * in progress wait for it and usually find their data already covered.
+     */
+    public void sync(long offset) {
+        if (durableOffset >= offset) return;
+        synchronized (syncLock) {
+            if (durableOffset >= offset) return;
+            long target = writeOffset;
+            // Segments before the one holding durableOffset were forced when they were rolled
+            Long from = segments.floorKey(durableOffset);
+            for (Segment segment : (from == null ? segments : segments.tailMap(from)).values()) {
+                segment.buffer.force();
+            }
+            durableOffset = target;
+        }
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at {@code offset}. Corrupt records stop the
+     * read; the caller sees no more data until the writer moves past them.
+     */
+    public List<Record> read(long offset, int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        long cursor = offset;
+        long limit = writeOffset;
+
+        while (records.size() < maxRecords && cursor < limit) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(cursor);
+            if (entry == null) {
+                // Offset was deleted by retention; skip forward to the oldest segment
+                cursor = segments.firstKey();
+                continue;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (cursor - segment.base);
+
+            int length = position + HEADER_BYTES <= segmentSize ? segment.buffer.getInt(position) : 0;
+            if (length <= 0) {
+                // End of this segment's data; the next record starts at the next segment
+                cursor = segment.base + segmentSize;
+                continue;
+            }
+            if (position + HEADER_BYTES + length > segmentSize) {
+                log.error("Journal record at offset {} overruns its segment", cursor);
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            segment.buffer.slice(position + HEADER_BYTES, length).get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                log.error("Journal record at offset {} failed its checksum", cursor);
+                break;
+            }
+
+            long next = cursor + HEADER_BYTES + length;
+            records.add(new Record(cursor, next, payload));
+            cursor = next;
+        }
+        return records;
+    }
+
+    public long getWriteOffset() {
+        return writeOffset;
+    }
+
+    public long getStartOffset() {
+        return segments.firstKey();
+    }
+
+    public long readCommittedOffset() throws IOException {
+        Path file = directory.resolve(OFFSET_FILE);
+        if (!Files.exists(file)) return getStartOffset();
+        return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+    }
+
+    public void commitOffset(long offset) throws IOException {
+        Path tmp = directory.resolve(OFFSET_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(offset), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+        Files.move(tmp, directory.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes segments that end at or before {@code offset}. The active segment is always kept.
+     */
+    public synchronized int deleteSegmentsBefore(long offset) {
+        int deleted = 0;
+        for (Segment segment : new ArrayList<>(segments.headMap(active.base).values())) {
+            if (segment.base + segmentSize > offset) break;
+            segments.remove(segment.base);
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+                deleted++;
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync(writeOffset);
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(base, openSegment(base));
+        }
+
+        if (segments.isEmpty()) {
+            active = openSegment(0);
+            segments.put(0L, active);
+            writeOffset = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            writeOffset = active.base + scanValidEnd(active);
+        }
+        durableOffset = writeOffset;
+        log.info("Journal opened at {}: {} segment(s), write offset {}", directory, segments.size(), writeOffset);
+    }
+
+    /**
+     * Finds the end of the last intact record. A torn write from a crash is zeroed so later
+     * appends (and readers) do not trip over it.
+     */
+    private int scanValidEnd(Segment segment) {
+        int position = 0;
+        while (position + HEADER_BYTES <= segmentSize) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segmentSize) break;
+
+            byte[] payload = new byte[length];
+            segment.buffer.slice(position + HEADER_BYTES, length).get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                log.warn("Truncating torn journal record at offset {}", segment.base + position);
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position + HEADER_BYTES <= segmentSize) {
+            segment.buffer.putInt(position, 0);
+        }
+        return position;
+    }
+
+    private void roll() throws IOException {
+        int position = (int) (writeOffset - active.base);
+        active.buffer.putInt(position, 0);
+        active.buffer.force();
+
+        long base = active.base + segmentSize;
+        active = openSegment(base);
+        segments.put(base, active);
+        writeOffset = base;
+    }
+
+    private Segment openSegment(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(base, path, channel, buffer);
+    }
+
+    private static final class Segment {
+        final long base;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        Segment(long base, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    public static final class Record {
+        private final long offset;
+        private final long nextOffset;
+        private final byte[] payload;
+
+        Record(long offset, long nextOffset, byte[] payload) {
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+            this.payload = payload;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getNextOffset() {
+            return nextOffset;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.nixo.fde.slackbot.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Binary logistic regression over hashed text features, trained online with SGD.
+ * <p>
+ * Features are lower-cased word unigrams and bigrams plus character trigrams (which handle
+ * emoji, typos and very short messages), hashed into {@code 2^hashBits} weights. Each message's
+ * feature vector is L2-normalised so long and short messages train at the same scale.
+ * <p>
+ * Prediction reads the weights without locking; training is synchronized. A racing read can see
+ * a half-applied update, which only nudges one score slightly.
+ */
+public class HashedLogisticRegression {
+
+    private static final int MODEL_VERSION = 1;
+
+    private final int hashBits;
+    private final int mask;
+    private final float[] weights;
+    private final double learningRate;
+    private final double l2;
+    private volatile float bias;
+    private volatile long samples;
+
+    public HashedLogisticRegression(int hashBits, double learningRate, double l2) {
+        this.hashBits = hashBits;
+        this.mask = (1 << hashBits) - 1;
+        this.weights = new float[1 << hashBits];
+        this.learningRate = learningRate;
+        this.l2 = l2;
+    }
+
+    /**
+     * Probability that the text belongs to the positive class.
+     */
+    public double predict(String text) {
+        int[] features = features(text);
+        if (features.length == 0) return sigmoid(bias);
+        double scale = 1.0 / Math.sqrt(features.length);
+        double z = bias;
+        for (int feature : features) {
+            z += weights[feature] * scale;
+        }
+        return sigmoid(z);
+    }
+
+    /**
+     * One SGD step on log-loss. Returns the prediction made before the update.
+     */
+    public synchronized double train(String text, boolean positive) {
+        int[] features = features(text);
+        double scale = features.length == 0 ? 0 : 1.0 / Math.sqrt(features.length);
+        double z = bias;
+        for (int feature : features) {
+            z += weights[feature] * scale;
+        }
+        double p = sigmoid(z);
+        double gradient = p - (positive ? 1 : 0);
+        // Slowly decaying step size keeps early labels from dominating
+        double rate = learningRate / Math.sqrt(1 + samples / 1000.0);
+
+        for (int feature : features) {
+            weights[feature] -= (float) (rate * (gradient * scale + l2 * weights[feature]));
+        }
+        bias -= (float) (rate * gradient);
+        samples++;
+        return p;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MODEL_VERSION);
+        out.writeInt(hashBits);
+        out.writeLong(samples);
+        out.writeFloat(bias);
+        for (float weight : weights) {
+            out.writeFloat(weight);
+        }
+    }
+
+    /**
+     * Loads weights written by {@link #writeTo}. Returns false (and leaves the model untouched)
+     * if the data was written with a different layout.
+     */
+    public synchronized boolean readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MODEL_VERSION || in.readInt() != hashBits) return false;
+        long loadedSamples = in.readLong();
+        float loadedBias = in.readFloat();
+        float[] loaded = new float[weights.length];
+        for (int i = 0; i < loaded.length; i++) {
+            loaded[i] = in.readFloat();
+        }
+        System.arraycopy(loaded, 0, weights, 0, weights.length);
+        bias = loadedBias;
+        samples = loadedSamples;
+        return true;
+    }
+
+    // ================= HELPER METHODS =================
+
+    int[] features(String text) {
+        if (text == null || text.isBlank()) return new int[0];
+        String lower = text.toLowerCase(Locale.ROOT);
+        String[] words = lower.split("[^\\p{L}\\p{N}]+");
+
+        int[] out = new int[words.length * 2 + lower.length() + 2];
+        int count = 0;
+        String previous = null;
+        for (String word : words) {
+            if (word.isEmpty()) continue;
+            out[count++] = hash("w:" + word);
+            if (previous != null) out[count++] = hash("b:" + previous + " " + word);
+            previous = word;
+        }
+
+        // Character trigrams over the raw (lower-cased) text, padded so 1-2 char messages count
+        String padded = " " + lower + " ";
+        int[] codePoints = padded.codePoints().toArray();
+        for (int i = 0; i + 3 <= codePoints.length && count < out.length; i++) {
+            out[count++] = hash("c:" + new String(codePoints, i, 3));
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    private int hash(String feature) {
+        int h = 0x811c9dc5;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private static double sigmoid(double z) {
+        if (z >= 0) return 1.0 / (1.0 + Math.exp(-z));
+        double e = Math.exp(z);
+        return e / (1.0 + e);
+    }
+}
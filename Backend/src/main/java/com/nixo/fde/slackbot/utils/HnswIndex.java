@@ -0,0 +1,352 @@
+package com.nixo.fde.slackbot.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.LongPredicate;
+
+/**
+ * Small in-memory HNSW (Hierarchical Navigable Small World) graph for cosine similarity search.
+ * <p>
+ * Vectors are L2-normalised on insert, so similarity is a plain dot product.
+ * Re-adding an existing id moves that node in place (new vector, re-linked neighbours), so
+ * frequently updated entries do not leave tombstones behind. Removal is lazy (tombstones):
+ * removed nodes still route searches but are never returned. Callers rebuild the graph once
+ * {@link #getDeletedCount()} grows too large.
+ * <p>
+ * Not thread-safe: callers must guard inserts with their own lock.
+ */
+public class HnswIndex {
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> idToNode = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount = 0;
+
+    public HnswIndex(int m, int efConstruction) {
+        this.m = Math.max(2, m);
+        this.maxM0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+    }
+
+    /**
+     * Insert a vector under the given id, or update it in place if the id is already present.
+     */
+    public void add(long id, float[] vector) {
+        float[] normalised = normalise(vector);
+        Integer existing = idToNode.get(id);
+        if (existing != null) {
+            update(existing, normalised);
+            return;
+        }
+
+        int level = randomLevel();
+        int index = nodes.size();
+        Node node = new Node(id, normalised, level, m, maxM0);
+        nodes.add(node);
+        idToNode.put(id, index);
+
+        if (entryPoint == -1) {
+            entryPoint = index;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(normalised, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> found = searchLayer(normalised, current, efConstruction, l);
+            int connections = Math.min(m, found.size());
+            for (int i = 0; i < connections; i++) {
+                int neighbour = found.get(i).node;
+                connect(index, neighbour, l);
+                connect(neighbour, index, l);
+            }
+            current = found.get(0).node;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = index;
+        }
+    }
+
+    /**
+     * Mark the vector with the given id as removed. Returns false if it was not present.
+     */
+    public boolean remove(long id) {
+        Integer index = idToNode.remove(id);
+        if (index == null) return false;
+        nodes.get(index).deleted = true;
+        deletedCount++;
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return idToNode.containsKey(id);
+    }
+
+    /**
+     * Returns up to k live entries most similar to the query, best first.
+     *
+     * @param filter optional id filter; rejected ids are traversed but not returned
+     */
+    public List<SearchResult> search(float[] query, int k, int ef, LongPredicate filter) {
+        if (entryPoint == -1 || idToNode.isEmpty() || k <= 0) return List.of();
+
+        float[] normalised = normalise(query);
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(normalised, current, l);
+        }
+
+        // Tombstones and filtered-out ids still occupy the beam; widen it until k live results
+        // are found or the reachable graph is exhausted
+        int width = Math.max(ef, k);
+        while (true) {
+            List<Candidate> found = searchLayer(normalised, current, width, 0);
+            List<SearchResult> results = new ArrayList<>(k);
+            for (Candidate candidate : found) {
+                Node node = nodes.get(candidate.node);
+                if (node.deleted) continue;
+                if (filter != null && !filter.test(node.id)) continue;
+                results.add(new SearchResult(node.id, candidate.similarity));
+                if (results.size() == k) break;
+            }
+            if (results.size() == k || found.size() < width || width >= nodes.size()) {
+                return results;
+            }
+            width = Math.min(width * 2, nodes.size());
+        }
+    }
+
+    /**
+     * Returns a copy of the stored (normalised) vector, or null if absent.
+     */
+    public float[] getVector(long id) {
+        Integer index = idToNode.get(id);
+        return index == null ? null : nodes.get(index).vector.clone();
+    }
+
+    public int size() {
+        return idToNode.size();
+    }
+
+    public int getDeletedCount() {
+        return deletedCount;
+    }
+
+    // ================= HELPER METHODS =================
+
+    /**
+     * Moves an existing node to a new vector and re-selects its outgoing links on every level.
+     * Links from other nodes to it are kept; they still point at a live node.
+     */
+    private void update(int index, float[] normalised) {
+        Node node = nodes.get(index);
+        node.vector = normalised;
+        if (idToNode.size() == 1) return;
+
+        int level = node.neighbours.length - 1;
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(normalised, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> found = searchLayer(normalised, current, efConstruction + 1, l);
+            node.counts[l] = 0;
+            int linked = 0;
+            for (Candidate candidate : found) {
+                if (candidate.node == index) continue;
+                connect(index, candidate.node, l);
+                connect(candidate.node, index, l);
+                if (++linked == m) break;
+            }
+            current = found.get(0).node;
+        }
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = dot(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            int[] neighbours = node.neighbours[level];
+            for (int i = 0; i < node.counts[level]; i++) {
+                float similarity = dot(query, nodes.get(neighbours[i]).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer. Returns the ef closest nodes found, best first.
+     */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.similarity).reversed());
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.similarity));
+
+        Candidate first = new Candidate(start, dot(query, nodes.get(start).vector));
+        visited.set(start);
+        candidates.add(first);
+        best.add(first);
+
+        // Scratch space to score a node's unvisited neighbours in one batched kernel call
+        int[] batchNodes = new int[maxM0];
+        float[][] batchVectors = new float[maxM0][];
+        float[] batchScores = new float[maxM0];
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (best.size() >= ef && closest.similarity < best.peek().similarity) break;
+
+            Node node = nodes.get(closest.node);
+            int[] neighbours = node.neighbours[level];
+            int batchSize = 0;
+            for (int i = 0; i < node.counts[level]; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) continue;
+                visited.set(neighbour);
+                batchNodes[batchSize] = neighbour;
+                batchVectors[batchSize] = nodes.get(neighbour).vector;
+                batchSize++;
+            }
+            VectorMath.dotMany(query, batchVectors, batchSize, batchScores);
+
+            for (int i = 0; i < batchSize; i++) {
+                float similarity = batchScores[i];
+                if (best.size() < ef || similarity > best.peek().similarity) {
+                    Candidate candidate = new Candidate(batchNodes[i], similarity);
+                    candidates.add(candidate);
+                    best.add(candidate);
+                    if (best.size() > ef) best.poll();
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort(Comparator.comparingDouble((Candidate c) -> c.similarity).reversed());
+        return sorted;
+    }
+
+    private void connect(int from, int to, int level) {
+        Node node = nodes.get(from);
+        int capacity = level == 0 ? maxM0 : m;
+        int[] neighbours = node.neighbours[level];
+        int count = node.counts[level];
+
+        for (int i = 0; i < count; i++) {
+            if (neighbours[i] == to) return;
+        }
+
+        if (count < capacity) {
+            neighbours[count] = to;
+            node.counts[level] = count + 1;
+            return;
+        }
+
+        // Full: keep the closest `capacity` links, dropping the weakest one
+        int weakest = -1;
+        float weakestSimilarity = dot(node.vector, nodes.get(to).vector);
+        for (int i = 0; i < count; i++) {
+            float similarity = dot(node.vector, nodes.get(neighbours[i]).vector);
+            if (similarity < weakestSimilarity) {
+                weakestSimilarity = similarity;
+                weakest = i;
+            }
+        }
+        if (weakest >= 0) {
+            neighbours[weakest] = to;
+        }
+    }
+
+    private int randomLevel() {
+        double r = 1.0 - random.nextDouble(); // (0, 1]
+        return (int) Math.floor(-Math.log(r) * levelMultiplier);
+    }
+
+    public static float[] normalise(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector) norm += v * v;
+        float[] result = new float[vector.length];
+        if (norm == 0.0) return result;
+        float inverse = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) result[i] = vector[i] * inverse;
+        return result;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        return VectorMath.dot(a, b);
+    }
+
+    private static final class Node {
+        final long id;
+        float[] vector;
+        final int[][] neighbours;
+        final int[] counts;
+        boolean deleted;
+
+        Node(long id, float[] vector, int level, int m, int maxM0) {
+            this.id = id;
+            this.vector = vector;
+            this.neighbours = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                neighbours[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+    }
+
+    private static final class Candidate {
+        final int node;
+        final float similarity;
+
+        Candidate(int node, float similarity) {
+            this.node = node;
+            this.similarity = similarity;
+        }
+    }
+
+    public static final class SearchResult {
+        private final long id;
+        private final double similarity;
+
+        public SearchResult(long id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+}
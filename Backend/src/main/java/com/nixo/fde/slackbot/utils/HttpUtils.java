@@ -0,0 +1,50 @@
+package com.nixo.fde.slackbot.utils;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+public final class HttpUtils {
+
+    private HttpUtils() {
+    }
+
+    /**
+     * Enqueues the request on the client's dispatcher and completes with the response body.
+     * No thread is held while the request is in flight. Non-2xx responses complete exceptionally
+     * with "{errorPrefix}: {response}"; cancelling the future cancels the call.
+     */
+    public static CompletableFuture<String> executeAsync(OkHttpClient client, Request request, String errorPrefix) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Call call = client.newCall(request);
+        future.whenComplete((body, error) -> {
+            if (future.isCancelled()) call.cancel();
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call completedCall, Response response) {
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        future.completeExceptionally(new IOException(errorPrefix + ": " + response));
+                        return;
+                    }
+                    future.complete(response.body().string());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,122 @@
+package com.nixo.fde.slackbot.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks with the same key one at a time, in submission order, while tasks for different
+ * keys run in parallel on the underlying executor.
+ * <p>
+ * Each task is chained onto the previous task for its key; only keys with a task queued or in
+ * progress are tracked, and a key is dropped once its last task completes. Unrelated keys never
+ * wait for each other.
+ * <p>
+ * Tasks submitted with {@link #submitAsync} return a stage; no worker is held while the stage is
+ * pending, and the key's next task is started on the executor once it completes, so a key's
+ * tasks stay in order without a thread parked on its network calls.
+ */
+@Slf4j
+public class KeyedSerialExecutor {
+
+    private final Executor executor;
+    // Key -> completion of the last task submitted for it
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues the task behind earlier tasks for the same key. Throws the underlying executor's
+     * RejectedExecutionException if the key was idle and the task could not be scheduled; the
+     * task does not run in that case.
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        return submitAsync(key, () -> {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Queues a task that finishes asynchronously. The next task for the same key starts only
+     * after the returned stage completes. Same rejection behaviour as {@link #submit}; a task
+     * that waited behind another and is then rejected completes exceptionally instead.
+     */
+    public CompletableFuture<Void> submitAsync(String key, Supplier<? extends CompletionStage<?>> task) {
+        String k = key == null ? "" : key;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<?>[] previous = new CompletableFuture<?>[1];
+        tails.compute(k, (ignored, tail) -> {
+            previous[0] = tail;
+            return future;
+        });
+        // Drop the key once nothing is queued behind this task
+        future.whenComplete((result, error) -> tails.remove(k, future));
+
+        if (previous[0] == null || previous[0].isDone()) {
+            try {
+                executor.execute(() -> run(task, future));
+            } catch (RuntimeException e) {
+                // Release anything already chained behind us before handing the rejection back
+                future.completeExceptionally(e);
+                throw e;
+            }
+        } else {
+            // Whatever thread completes the previous task only schedules this one
+            previous[0].whenComplete((result, error) -> start(k, task, future));
+        }
+        return future;
+    }
+
+    /**
+     * The underlying executor, for continuations of async tasks that should not run on the
+     * thread completing the stage (e.g. an HTTP client callback thread).
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Number of keys with a task queued or in progress.
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void start(String key, Supplier<? extends CompletionStage<?>> task, CompletableFuture<Void> future) {
+        try {
+            executor.execute(() -> run(task, future));
+        } catch (RejectedExecutionException e) {
+            log.error("Could not schedule queued task for key {}: {}", key, e.getMessage());
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void run(Supplier<? extends CompletionStage<?>> task, CompletableFuture<Void> future) {
+        CompletionStage<?> stage;
+        try {
+            stage = task.get();
+        } catch (Throwable t) {
+            log.error("Keyed task failed: {}", t.getMessage(), t);
+            future.completeExceptionally(t);
+            return;
+        }
+        if (stage == null) {
+            future.complete(null);
+            return;
+        }
+        stage.whenComplete((result, error) -> {
+            if (error == null) future.complete(null);
+            else future.completeExceptionally(error);
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.nixo.fde.slackbot.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent single-item requests into batched calls.
+ * <p>
+ * A collector thread waits for the first request, then keeps collecting for up to
+ * {@code maxDelayMs} or until {@code maxBatchSize} items are queued, and hands the batch to
+ * the handler. The handler is asynchronous and must complete with exactly one output per input,
+ * in order; the collector never waits on it, so in-flight batches are bounded by whatever the
+ * handler itself enqueues on (e.g. the HTTP dispatcher), not by a thread pool here.
+ */
+@Slf4j
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private final String name;
+    private final Function<List<I>, CompletableFuture<List<O>>> handler;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending<I, O>> queue = new LinkedBlockingQueue<>();
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, Function<List<I>, CompletableFuture<List<O>>> handler, int maxBatchSize, long maxDelayMs) {
+        this.name = name;
+        this.handler = handler;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMs));
+        this.collector = new Thread(this::collectLoop, name + "-batcher");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    public CompletableFuture<O> submit(I input) {
+        CompletableFuture<O> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException(name + " batcher is closed"));
+            return future;
+        }
+        queue.add(new Pending<>(input, future));
+        return future;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        collector.interrupt();
+        List<Pending<I, O>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.future.completeExceptionally(new IllegalStateException(name + " batcher is closed")));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private void collectLoop() {
+        while (running) {
+            try {
+                Pending<I, O> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    if (batch.size() >= maxBatchSize) break;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending<I, O> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("{} batcher loop error: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void dispatch(List<Pending<I, O>> batch) {
+        CompletableFuture<List<O>> result;
+        try {
+            List<I> inputs = new ArrayList<>(batch.size());
+            for (Pending<I, O> pending : batch) inputs.add(pending.input);
+            result = handler.apply(inputs);
+        } catch (Throwable t) {
+            result = CompletableFuture.failedFuture(t);
+        }
+
+        result.whenComplete((outputs, error) -> {
+            if (error == null && (outputs == null || outputs.size() != batch.size())) {
+                error = new IllegalStateException(name + " batch returned " + (outputs == null ? 0 : outputs.size())
+                        + " results for " + batch.size() + " inputs");
+            }
+            if (error != null) {
+                Throwable cause = error;
+                batch.forEach(p -> p.future.completeExceptionally(cause));
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(outputs.get(i));
+            }
+        });
+    }
+
+    private static final class Pending<I, O> {
+        final I input;
+        final CompletableFuture<O> future;
+
+        Pending(I input, CompletableFuture<O> future) {
+            this.input = input;
+            this.future = future;
+        }
+    }
+}
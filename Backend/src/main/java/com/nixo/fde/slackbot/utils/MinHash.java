@@ -0,0 +1,114 @@
+package com.nixo.fde.slackbot.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MinHash signatures over the token set of short texts, for near-duplicate lookup.
+ * <p>
+ * {@link #tokens} lower-cases text and splits it on non-alphanumerics; {@link #shingles} gives
+ * character k-grams instead. The fraction of signature slots two texts share estimates the
+ * Jaccard similarity of their token sets; grouping the slots into bands of {@code rows} gives
+ * LSH keys, so only texts sharing at least one band need comparing.
+ */
+public final class MinHash {
+
+    private final long[] seeds;
+    private final int rows;
+
+    public MinHash(int bands, int rows) {
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < seeds.length; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            seeds[i] = seed;
+        }
+    }
+
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) return tokens;
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Character k-grams of the lower-cased, whitespace-collapsed text, for matching texts that
+     * differ by a few typos rather than by words. Texts shorter than {@code k} are one shingle.
+     */
+    public static Set<String> shingles(String text, int k) {
+        Set<String> shingles = new LinkedHashSet<>();
+        if (text == null) return shingles;
+        String normalised = text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        if (normalised.isEmpty()) return shingles;
+        int[] codePoints = normalised.codePoints().toArray();
+        if (codePoints.length <= k) {
+            shingles.add(normalised);
+            return shingles;
+        }
+        for (int i = 0; i + k <= codePoints.length; i++) {
+            shingles.add(new String(codePoints, i, k));
+        }
+        return shingles;
+    }
+
+    public long[] signature(Set<String> tokens) {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, -1L);
+        for (String token : tokens) {
+            long base = hash(token);
+            for (int i = 0; i < seeds.length; i++) {
+                long h = mix(base ^ seeds[i]);
+                if (Long.compareUnsigned(h, signature[i]) < 0) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * LSH key for one band of the signature.
+     */
+    public long bandKey(long[] signature, int band) {
+        long h = band * 0x9E3779B97F4A7C15L;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            h = mix(h ^ signature[i]);
+        }
+        return h;
+    }
+
+    public int getBands() {
+        return seeds.length / rows;
+    }
+
+    public static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) return 1.0;
+        int intersection = 0;
+        for (String token : a.size() <= b.size() ? a : b) {
+            if ((a.size() <= b.size() ? b : a).contains(token)) intersection++;
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static long hash(String token) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : token.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
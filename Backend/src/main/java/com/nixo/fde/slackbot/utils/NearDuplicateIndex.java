@@ -0,0 +1,99 @@
+package com.nixo.fde.slackbot.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LSH index of texts for finding likely near-duplicates (a few typos or edits apart)
+ * without scanning every stored text.
+ * <p>
+ * Each text is indexed by the MinHash band keys of its character shingles. {@link #candidates}
+ * returns the indexed texts sharing at least one band, most shared bands first; callers verify
+ * them with an exact check such as {@link ApplicationUtils#isStringSimilar}. Only the texts are
+ * held (the caller owns the values); the oldest are dropped beyond {@code maxEntries}.
+ */
+public class NearDuplicateIndex {
+
+    private final MinHash minHash;
+    private final int shingleSize;
+    private final int maxEntries;
+
+    // Insertion order doubles as age order for eviction
+    private final LinkedHashMap<String, long[]> entries = new LinkedHashMap<>();
+    private final Map<Long, List<String>> buckets = new HashMap<>();
+
+    public NearDuplicateIndex(int bands, int rows, int shingleSize, int maxEntries) {
+        this.minHash = new MinHash(bands, rows);
+        this.shingleSize = shingleSize;
+        this.maxEntries = maxEntries;
+    }
+
+    public void add(String text) {
+        long[] bandKeys = bandKeys(text);
+        synchronized (this) {
+            if (entries.containsKey(text)) return;
+            entries.put(text, bandKeys);
+            for (long key : bandKeys) {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>(2)).add(text);
+            }
+            while (entries.size() > maxEntries) {
+                remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    public synchronized void remove(String text) {
+        long[] bandKeys = entries.remove(text);
+        if (bandKeys == null) return;
+        for (long key : bandKeys) {
+            List<String> bucket = buckets.get(key);
+            if (bucket == null) continue;
+            bucket.remove(text);
+            if (bucket.isEmpty()) buckets.remove(key);
+        }
+    }
+
+    /**
+     * Up to {@code limit} indexed texts sharing a band with {@code text}, most shared bands first.
+     */
+    public List<String> candidates(String text, int limit) {
+        long[] bandKeys = bandKeys(text);
+        Map<String, Integer> shared = new HashMap<>();
+        synchronized (this) {
+            for (long key : bandKeys) {
+                List<String> bucket = buckets.get(key);
+                if (bucket == null) continue;
+                for (String candidate : bucket) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        if (shared.isEmpty()) return List.of();
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(shared.entrySet());
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<String> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && result.size() < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ================= HELPER METHODS =================
+
+    private long[] bandKeys(String text) {
+        long[] signature = minHash.signature(MinHash.shingles(text, shingleSize));
+        long[] keys = new long[minHash.getBands()];
+        for (int band = 0; band < keys.length; band++) {
+            keys[band] = minHash.bandKey(signature, band);
+        }
+        return keys;
+    }
+}
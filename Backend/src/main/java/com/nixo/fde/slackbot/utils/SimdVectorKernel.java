@@ -0,0 +1,68 @@
+package com.nixo.fde.slackbot.utils;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD dot-product kernel on the Java Vector API. Only instantiated by {@link VectorMath}
+ * when the jdk.incubator.vector module is present at runtime.
+ */
+final class SimdVectorKernel implements VectorMath.Kernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int i = 0;
+        int upperBound = SPECIES.loopBound(a.length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    @Override
+    public void dotMany(float[] query, float[][] candidates, int count, float[] scores) {
+        int upperBound = SPECIES.loopBound(query.length);
+        int c = 0;
+
+        // Two candidates per pass so each query lane load feeds two FMAs
+        for (; c + 1 < count; c += 2) {
+            float[] first = candidates[c];
+            float[] second = candidates[c + 1];
+            if (first.length != query.length || second.length != query.length) {
+                scores[c] = first.length == query.length ? dot(query, first) : 0.0f;
+                scores[c + 1] = second.length == query.length ? dot(query, second) : 0.0f;
+                continue;
+            }
+
+            FloatVector acc1 = FloatVector.zero(SPECIES);
+            FloatVector acc2 = FloatVector.zero(SPECIES);
+            int i = 0;
+            for (; i < upperBound; i += SPECIES.length()) {
+                FloatVector q = FloatVector.fromArray(SPECIES, query, i);
+                acc1 = q.fma(FloatVector.fromArray(SPECIES, first, i), acc1);
+                acc2 = q.fma(FloatVector.fromArray(SPECIES, second, i), acc2);
+            }
+            float sum1 = acc1.reduceLanes(VectorOperators.ADD);
+            float sum2 = acc2.reduceLanes(VectorOperators.ADD);
+            for (; i < query.length; i++) {
+                sum1 += query[i] * first[i];
+                sum2 += query[i] * second[i];
+            }
+            scores[c] = sum1;
+            scores[c + 1] = sum2;
+        }
+
+        if (c < count) {
+            float[] last = candidates[c];
+            scores[c] = last.length == query.length ? dot(query, last) : 0.0f;
+        }
+    }
+}
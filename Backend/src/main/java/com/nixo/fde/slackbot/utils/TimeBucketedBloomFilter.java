@@ -0,0 +1,147 @@
+package com.nixo.fde.slackbot.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over a sliding time window, split into {@code buckets} generations.
+ * <p>
+ * Keys go into the bucket for the current time slice; lookups check every bucket still inside
+ * the window, so a key is remembered for between {@code (buckets - 1)} and {@code buckets}
+ * slices. Setting bits is lock-free (CAS on an {@link AtomicLongArray}); only the first writer
+ * into a new slice takes the bucket's monitor to clear it, and a bucket is not written or read
+ * for the new slice until that clear has finished, so there are no false negatives inside the
+ * window.
+ */
+public class TimeBucketedBloomFilter {
+
+    private final Bucket[] buckets;
+    private final long bucketMillis;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedPerBucket keys expected in one time slice
+     * @param falsePositiveRate target false-positive rate per bucket (the window's rate is up to
+     *                          {@code buckets} times this)
+     */
+    public TimeBucketedBloomFilter(int buckets, long bucketMillis, int expectedPerBucket, double falsePositiveRate) {
+        this.bucketMillis = bucketMillis;
+        double bits = -expectedPerBucket * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 64L, Math.max(64, (long) Math.ceil(bits)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedPerBucket * Math.log(2)));
+        this.buckets = new Bucket[Math.max(1, buckets)];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new Bucket((bitCount + 63) / 64);
+        }
+    }
+
+    public void put(String key) {
+        put(key, System.currentTimeMillis());
+    }
+
+    public boolean mightContain(String key) {
+        return mightContain(key, System.currentTimeMillis());
+    }
+
+    public void put(String key, long timeMillis) {
+        long slice = Math.floorDiv(timeMillis, bucketMillis);
+        Bucket bucket = buckets[(int) Math.floorMod(slice, (long) buckets.length)];
+        bucket.advanceTo(slice);
+        if (bucket.slice != slice) return; // Older than the window; nothing to remember
+
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+            bucket.set(bit);
+        }
+    }
+
+    public boolean mightContain(String key, long timeMillis) {
+        long current = Math.floorDiv(timeMillis, bucketMillis);
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+
+        for (Bucket bucket : buckets) {
+            long slice = bucket.slice;
+            if (slice > current || slice <= current - buckets.length) continue;
+
+            boolean all = true;
+            for (int i = 0; i < hashCount && all; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                all = bucket.get(bit);
+            }
+            // Re-check: the bucket may have been recycled for a newer slice while we read it
+            if (all && bucket.slice == slice) return true;
+        }
+        return false;
+    }
+
+    /**
+     * How far back (in ms) a put is guaranteed to still be visible.
+     */
+    public long getGuaranteedWindowMillis() {
+        return (buckets.length - 1) * bucketMillis;
+    }
+
+    public int getBitsPerBucket() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static long hash(String key) {
+        // FNV-1a over UTF-8 bytes, then a finaliser so nearby keys (Slack ts) spread out
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Bucket {
+        private final AtomicLongArray words;
+        private volatile long slice = Long.MIN_VALUE;
+
+        Bucket(int wordCount) {
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        void advanceTo(long newSlice) {
+            if (slice >= newSlice) return;
+            synchronized (this) {
+                if (slice >= newSlice) return;
+                for (int i = 0; i < words.length(); i++) {
+                    words.set(i, 0L);
+                }
+                slice = newSlice;
+            }
+        }
+
+        void set(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = words.get(index);
+                if ((current & mask) != 0) return;
+            } while (!words.compareAndSet(index, current, current | mask));
+        }
+
+        boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << (bit & 63))) != 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nixo.fde.slackbot.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Similarity kernels over pre-normalised float vectors.
+ * <p>
+ * Uses the SIMD kernel ({@code jdk.incubator.vector}) when the build included it ({@code -Psimd})
+ * and the JVM was started with {@code --add-modules jdk.incubator.vector}, otherwise a scalar loop.
+ * The choice is logged once at startup, with the reason when SIMD is not used. Set the system
+ * property {@code vector.simd.disabled=true} to force the scalar path.
+ */
+@Slf4j
+public final class VectorMath {
+
+    interface Kernel {
+        float dot(float[] a, float[] b);
+
+        void dotMany(float[] query, float[][] candidates, int count, float[] scores);
+    }
+
+    private static final Kernel KERNEL = selectKernel();
+
+    private VectorMath() {
+    }
+
+    /**
+     * Dot product; equals cosine similarity when both vectors are unit length.
+     * Returns 0 when the dimensions differ.
+     */
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) return 0.0f;
+        return KERNEL.dot(a, b);
+    }
+
+    /**
+     * Scores one query against the first {@code count} candidates, writing into {@code scores}.
+     * Candidates of a different dimension score 0.
+     */
+    public static void dotMany(float[] query, float[][] candidates, int count, float[] scores) {
+        KERNEL.dotMany(query, candidates, count, scores);
+    }
+
+    public static boolean isSimdEnabled() {
+        return !(KERNEL instanceof ScalarKernel);
+    }
+
+    private static Kernel selectKernel() {
+        if (Boolean.getBoolean("vector.simd.disabled")) {
+            log.info("Vector similarity: scalar kernel (vector.simd.disabled=true)");
+            return new ScalarKernel();
+        }
+        Class<?> simdClass;
+        try {
+            // Loaded reflectively so this class still links when the kernel or the module is absent
+            simdClass = Class.forName("com.nixo.fde.slackbot.utils.SimdVectorKernel", false,
+                    VectorMath.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            log.info("Vector similarity: scalar kernel (SIMD kernel not in this build; package with -Psimd)");
+            return new ScalarKernel();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.warn("Vector similarity: scalar kernel (start the JVM with --add-modules jdk.incubator.vector "
+                    + "or set it in JDK_JAVA_OPTIONS to enable SIMD)");
+            return new ScalarKernel();
+        }
+        try {
+            Kernel kernel = (Kernel) simdClass.getDeclaredConstructor().newInstance();
+            log.info("Vector similarity: SIMD kernel");
+            return kernel;
+        } catch (Throwable t) {
+            log.warn("SIMD kernel unavailable, using scalar: {}", t.toString());
+            return new ScalarKernel();
+        }
+    }
+
+    static final class ScalarKernel implements Kernel {
+        @Override
+        public float dot(float[] a, float[] b) {
+            float sum = 0.0f;
+            for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+            return sum;
+        }
+
+        @Override
+        public void dotMany(float[] query, float[][] candidates, int count, float[] scores) {
+            for (int c = 0; c < count; c++) {
+                float[] candidate = candidates[c];
+                scores[c] = candidate.length == query.length ? dot(query, candidate) : 0.0f;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.nixo.fde.slackbot.repository;
+
+import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.TicketFilter;
+import com.nixo.fde.slackbot.utils.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Walks the keyset-paginated ticket listing page by page, passing each page's cursor through
+ * encode/decode the way the controller does, and checks the pages join up with no gaps or
+ * repeats, including across runs of tickets with the same updated_at.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SlackTicketRepositoryCustomImplTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final String[] CATEGORIES = {"BUG", "FEATURE_REQUEST", "SUPPORT"};
+
+    @Autowired
+    private SlackTicketRepository ticketRepository;
+
+    private final Map<Long, SlackTicket> tickets = new HashMap<>();
+
+    @BeforeEach
+    void createTickets() {
+        // Only five distinct timestamps across 57 tickets, so most page boundaries fall inside a tie
+        for (int i = 0; i < 57; i++) {
+            LocalDateTime updatedAt = BASE.plusMinutes(i % 5);
+            SlackTicket ticket = ticketRepository.save(SlackTicket.builder()
+                    .title("ticket " + i)
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .status(i % 4 == 0 ? "CLOSED" : "OPEN")
+                    .createdAt(updatedAt)
+                    .updatedAt(updatedAt)
+                    .build());
+            tickets.put(ticket.getId(), ticket);
+        }
+        ticketRepository.flush();
+    }
+
+    @Test
+    void pagesCoverEveryTicketOnceInOrder() {
+        for (int pageSize : new int[]{1, 7, 10, 57, 100}) {
+            assertEquals(expected(new TicketFilter()), walk(new TicketFilter(), pageSize), "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void filteredPagesCoverEveryMatchingTicketOnceInOrder() {
+        TicketFilter byCategory = TicketFilter.builder().category("BUG").build();
+        TicketFilter byStatusAndTime = TicketFilter.builder()
+                .status("OPEN")
+                .from(BASE.plusMinutes(1))
+                .to(BASE.plusMinutes(4))
+                .build();
+
+        assertEquals(expected(byCategory), walk(byCategory, 4));
+        List<Long> window = walk(byStatusAndTime, 6);
+        assertEquals(expected(byStatusAndTime), window);
+        assertFalse(window.isEmpty());
+    }
+
+    // ================= HELPER METHODS =================
+
+    private List<Long> walk(TicketFilter filter, int pageSize) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages <= tickets.size(); pages++) {
+            KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+            List<Long> ids = ticketRepository.findPageIds(filter, after, pageSize + 1);
+            boolean hasMore = ids.size() > pageSize;
+            if (hasMore) ids = ids.subList(0, pageSize);
+            seen.addAll(ids);
+            if (!hasMore) return seen;
+
+            SlackTicket last = tickets.get(ids.get(ids.size() - 1));
+            cursor = new KeysetCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        throw new AssertionError("pagination did not terminate");
+    }
+
+    private List<Long> expected(TicketFilter filter) {
+        return tickets.values().stream()
+                .filter(t -> filter.getCategory() == null || filter.getCategory().equals(t.getCategory()))
+                .filter(t -> filter.getStatus() == null || filter.getStatus().equals(t.getStatus()))
+                .filter(t -> filter.getFrom() == null || !t.getUpdatedAt().isBefore(filter.getFrom()))
+                .filter(t -> filter.getTo() == null || t.getUpdatedAt().isBefore(filter.getTo()))
+                .sorted(Comparator.comparing(SlackTicket::getUpdatedAt).thenComparing(SlackTicket::getId).reversed())
+                .map(SlackTicket::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.SlackEventDto;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventDeduplicationServiceTest {
+
+    private SlackMessageRepository messageRepository;
+    private EventDeduplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(SlackMessageRepository.class);
+        DownstreamLimiter limiter = new DownstreamLimiter();
+        ReflectionTestUtils.setField(limiter, "dbPermits", 1);
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 1000L);
+        limiter.init();
+
+        service = new EventDeduplicationService(messageRepository, limiter);
+        ReflectionTestUtils.setField(service, "eventIdTtlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "windowHours", 24);
+        ReflectionTestUtils.setField(service, "buckets", 4);
+        ReflectionTestUtils.setField(service, "expectedPerBucket", 1_000);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 1e-6);
+        service.init();
+    }
+
+    @Test
+    void checksTheDatabaseUntilTheFilterIsWarmed() {
+        String ts = slackTs(Duration.ofMinutes(5), 1);
+        when(messageRepository.existsBySlackTimestamp(ts)).thenReturn(true);
+
+        assertTrue(service.isAlreadyProcessed(ts));
+        verify(messageRepository).existsBySlackTimestamp(ts);
+    }
+
+    @Test
+    void filterMissSkipsTheDatabaseInsideTheWindow() {
+        when(messageRepository.findSlackTimestampsSince(any())).thenReturn(List.of());
+        service.warmUp();
+
+        assertFalse(service.isAlreadyProcessed(slackTs(Duration.ofHours(2), 1)));
+        verify(messageRepository, never()).existsBySlackTimestamp(anyString());
+    }
+
+    @Test
+    void warmedAndMarkedTimestampsAreConfirmedByTheDatabase() {
+        String warmed = slackTs(Duration.ofHours(3), 1);
+        String marked = slackTs(Duration.ofMinutes(1), 2);
+        when(messageRepository.findSlackTimestampsSince(any())).thenReturn(List.of(warmed));
+        when(messageRepository.existsBySlackTimestamp(anyString())).thenReturn(true);
+        service.warmUp();
+        service.markProcessed(marked);
+
+        assertTrue(service.isAlreadyProcessed(warmed));
+        assertTrue(service.isAlreadyProcessed(marked));
+        verify(messageRepository).existsBySlackTimestamp(warmed);
+        verify(messageRepository).existsBySlackTimestamp(marked);
+    }
+
+    @Test
+    void messagesOlderThanTheWindowAlwaysGoToTheDatabase() {
+        String old = slackTs(Duration.ofDays(3), 1);
+        when(messageRepository.findSlackTimestampsSince(any())).thenReturn(List.of());
+        service.warmUp();
+
+        assertFalse(service.isAlreadyProcessed(old));
+        verify(messageRepository).existsBySlackTimestamp(old);
+    }
+
+    @Test
+    void retriedEventIdIsRejectedUntilReleased() {
+        SlackEventDto event = new SlackEventDto();
+        event.setEventId("Ev123");
+
+        assertTrue(service.tryAccept(event));
+        assertFalse(service.tryAccept(event));
+
+        service.release(event);
+        assertTrue(service.tryAccept(event));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static String slackTs(Duration age, int sequence) {
+        return String.format("%d.%06d", Instant.now().minus(age).getEpochSecond(), sequence);
+    }
+}
@@ -0,0 +1,75 @@
+package com.nixo.fde.slackbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nixo.fde.slackbot.payload.SlackEventDto;
+import com.nixo.fde.slackbot.utils.EventJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventJournalServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private SlackBotEventService eventService;
+    private EventJournalService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        eventService = mock(SlackBotEventService.class);
+        service = new EventJournalService(eventService, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+        ReflectionTestUtils.setField(service, "segmentSizeMb", 1);
+        // One slot: a leaked permit would stop the consumer at the next event
+        ReflectionTestUtils.setField(service, "maxInFlight", 1);
+        ReflectionTestUtils.setField(service, "readBatchSize", 100);
+        ReflectionTestUtils.setField(service, "pollIntervalMs", 10L);
+        ReflectionTestUtils.setField(service, "commitIntervalMs", 0L);
+        ReflectionTestUtils.setField(service, "replayFrom", -1L);
+        service.init();
+    }
+
+    @Test
+    void failedDispatchReleasesItsSlotAndTheOffsetMovesPastIt() throws Exception {
+        when(eventService.processEventAsync(any()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        try {
+            service.submit(event("Ev1"));
+            service.submit(event("Ev2"));
+            verify(eventService, timeout(5_000).times(2)).processEventAsync(any());
+        } finally {
+            service.shutdown();
+        }
+
+        EventJournal journal = new EventJournal(directory, 1024 * 1024);
+        try {
+            assertEquals(journal.getWriteOffset(), journal.readCommittedOffset());
+        } finally {
+            journal.close();
+        }
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static SlackEventDto event(String eventId) {
+        SlackEventDto event = new SlackEventDto();
+        event.setEventId(eventId);
+        return event;
+    }
+}
@@ -0,0 +1,138 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.config.CacheConfig;
+import com.nixo.fde.slackbot.config.CacheConfigProperties;
+import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.repository.SlackTicketRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Grouping path against a real Postgres: the ticket counters are maintained by the native
+ * {@code recordMessages} UPDATE ... RETURNING, and the snapshot handed back must match the row.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MessageGroupingService.class, DownstreamLimiter.class, ThreadRoutingIndex.class, TicketCounterService.class,
+        TicketTouchBuffer.class, CacheConfig.class, CacheConfigProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MessageGroupingServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockBean
+    private VectorSearchInterface vectorSearch;
+
+    // Unstubbed: no embedding, so every root message opens a new ticket
+    @MockBean
+    private EmbeddingBatchService embeddingService;
+
+    @Autowired
+    private MessageGroupingService groupingService;
+
+    @Autowired
+    private SlackTicketRepository ticketRepository;
+
+    @Autowired
+    private SlackMessageRepository messageRepository;
+
+    @Test
+    void groupedMessagesUpdateTheCountersAndReturnTheUpdatedRow() {
+        String rootTs = "1718000000.000100";
+        SlackTicket created = groupingService.processMessage("Login page returns 500", null,
+                bug("Login broken"), "U1", "C1", "channel", rootTs, null);
+
+        assertNotNull(created);
+        assertEquals(1, created.getMessageCount());
+        assertEquals(ApplicationUtils.parseSlackTimestamp(rootTs), created.getLastMessageAt());
+        assertEquals("Login broken", created.getTitle());
+        assertEquals("BUG", created.getCategory());
+        assertEquals("OPEN", created.getStatus());
+        assertEquals("U1", created.getFirstUser());
+        assertEquals("C1", created.getFirstChannel());
+        assertNotNull(created.getCreatedAt());
+
+        // Reply in the thread: routed in memory, so the ticket is only referenced, never loaded
+        String replyTs = "1718000600.000200";
+        SlackTicket replied = groupingService.processMessage("Still failing after a refresh", rootTs,
+                bug("Login broken"), "U2", "C1", "channel", replyTs, null);
+
+        assertNotNull(replied);
+        assertEquals(created.getId(), replied.getId());
+        assertEquals(2, replied.getMessageCount());
+        assertEquals(ApplicationUtils.parseSlackTimestamp(replyTs), replied.getLastMessageAt());
+        assertEquals("Login broken", replied.getTitle());
+        assertEquals("U1", replied.getFirstUser());
+        assertEquals(created.getCreatedAt(), replied.getCreatedAt());
+
+        assertRow(created.getId(), 2, ApplicationUtils.parseSlackTimestamp(replyTs));
+        assertEquals(2, messageRepository.findByTicketId(created.getId()).size());
+    }
+
+    @Test
+    void lateReplyCountsButDoesNotMoveLastMessageAtBackwards() {
+        String rootTs = "1718100000.000100";
+        SlackTicket created = groupingService.processMessage("Export to CSV times out", null,
+                bug("CSV export timeout"), "U1", "C2", "channel", rootTs, null);
+        String replyTs = "1718100900.000300";
+        groupingService.processMessage("Happens for large workspaces", rootTs,
+                bug("CSV export timeout"), "U2", "C2", "channel", replyTs, null);
+
+        // Delivered out of order: older than the reply already recorded
+        SlackTicket late = groupingService.processMessage("Started this morning", rootTs,
+                bug("CSV export timeout"), "U3", "C2", "channel", "1718100300.000200", null);
+
+        assertEquals(3, late.getMessageCount());
+        assertEquals(ApplicationUtils.parseSlackTimestamp(replyTs), late.getLastMessageAt());
+        assertRow(created.getId(), 3, ApplicationUtils.parseSlackTimestamp(replyTs));
+    }
+
+    @Test
+    void duplicateContentIsNotCounted() {
+        String rootTs = "1718200000.000100";
+        SlackTicket created = groupingService.processMessage("Webhook retries forever", null,
+                bug("Webhook retries"), "U1", "C3", "channel", rootTs, null);
+
+        SlackTicket duplicate = groupingService.processMessage("  webhook retries forever ", rootTs,
+                bug("Webhook retries"), "U2", "C3", "channel", "1718200060.000200", null);
+
+        assertNull(duplicate);
+        assertRow(created.getId(), 1, ApplicationUtils.parseSlackTimestamp(rootTs));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static ClassificationResultDto bug(String title) {
+        return new ClassificationResultDto(true, "BUG", title, 0.9);
+    }
+
+    private void assertRow(Long ticketId, int messageCount, LocalDateTime lastMessageAt) {
+        List<SlackTicketRepository.TicketSummary> rows = ticketRepository.findSummariesByIds(List.of(ticketId));
+        assertEquals(1, rows.size());
+        assertEquals(messageCount, rows.get(0).getMessageCount());
+        assertEquals(lastMessageAt, rows.get(0).getLastMessageAt());
+    }
+}
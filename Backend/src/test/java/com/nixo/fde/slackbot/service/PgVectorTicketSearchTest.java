@@ -0,0 +1,186 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.models.SlackMessage;
+import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.Embedding;
+import com.nixo.fde.slackbot.repository.SlackMessageRepository;
+import com.nixo.fde.slackbot.repository.SlackTicketRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import com.nixo.fde.slackbot.utils.EmbeddingCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the pgvector backend against a real Postgres with the vector extension and an HNSW index.
+ * Each case crowds the query's neighbourhood with rows the filters reject, which is what
+ * starved the filtered index scan before ef_search / iterative scans were set per query.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.hbm2ddl.import_files=pgvector-schema.sql",
+        "grouping.backend=pgvector",
+        "grouping.time.window.hours=24"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PgVectorTicketSearch.class)
+class PgVectorTicketSearchTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("pgvector/pgvector:0.8.0-pg16").asCompatibleSubstituteFor("postgres"));
+
+    private static final float[] QUERY = {1f, 0f, 0f};
+
+    @Autowired
+    private PgVectorTicketSearch search;
+
+    @Autowired
+    private SlackTicketRepository ticketRepository;
+
+    @Autowired
+    private SlackMessageRepository messageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(7);
+
+    @BeforeEach
+    void forceIndexScans() {
+        // Tables this small would otherwise be read sequentially, hiding the index-scan behaviour
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void findsSmallCategoryBehindLargeNearerCategory() {
+        LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+        SlackTicket crowd = ticket("BUG");
+        for (int i = 0; i < 500; i++) {
+            message(crowd, jitter(QUERY, 0.01f), now);
+        }
+        SlackTicket wanted = ticket("FEATURE");
+        message(wanted, new float[]{0.9f, 0.3f, 0f}, now);
+        SlackTicket other = ticket("FEATURE");
+        message(other, new float[]{0f, 1f, 0f}, now);
+
+        List<VectorSearchInterface.TicketMatch> matches = search.findNearestTickets(Embedding.of(QUERY), "FEATURE", 5);
+
+        assertEquals(2, matches.size());
+        assertEquals(wanted.getId(), matches.get(0).getTicketId());
+        assertEquals(other.getId(), matches.get(1).getTicketId());
+    }
+
+    @Test
+    void findsRecentMessageBehindOlderNearerOnes() {
+        LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+        SlackTicket stale = ticket("BUG");
+        for (int i = 0; i < 500; i++) {
+            message(stale, jitter(QUERY, 0.01f), now.minusDays(3));
+        }
+        SlackTicket recent = ticket("BUG");
+        message(recent, new float[]{0.8f, 0.5f, 0.1f}, now.minusHours(1));
+
+        List<VectorSearchInterface.TicketMatch> matches = search.findNearestTickets(Embedding.of(QUERY), "BUG", 5);
+
+        assertFalse(matches.isEmpty());
+        assertEquals(recent.getId(), matches.get(0).getTicketId());
+        assertEquals(1, matches.size());
+    }
+
+    @Test
+    void collapsesMessagesToBestScorePerTicket() {
+        LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+        SlackTicket close = ticket("SUPPORT");
+        message(close, new float[]{1f, 0.05f, 0f}, now);
+        message(close, new float[]{0f, 0f, 1f}, now);
+        SlackTicket far = ticket("SUPPORT");
+        message(far, new float[]{0.5f, 0.5f, 0f}, now);
+
+        List<VectorSearchInterface.TicketMatch> matches = search.findNearestTickets(Embedding.of(QUERY), "SUPPORT", 5);
+
+        assertEquals(2, matches.size());
+        assertEquals(close.getId(), matches.get(0).getTicketId());
+        assertEquals(0.998, matches.get(0).getSimilarity(), 0.01);
+    }
+
+    @Test
+    void backfillGetsPastAFullBatchOfUndecodableRows() {
+        ReflectionTestUtils.setField(search, "backfillBatchSize", 2);
+        LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+        SlackTicket ticket = ticket("BUG");
+        for (int i = 0; i < 2; i++) {
+            stored(ticket, new byte[]{1, 2, 3}, now);
+        }
+        SlackMessage valid = stored(ticket, EmbeddingCodec.encode(Embedding.of(QUERY), EmbeddingCodec.Format.FLOAT32), now);
+
+        search.backfill();
+
+        Integer mirrored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM slack_messages WHERE id = ? AND embedding_vec IS NOT NULL", Integer.class, valid.getId());
+        assertEquals(1, mirrored);
+    }
+
+    // ================= HELPER METHODS =================
+
+    private SlackTicket ticket(String category) {
+        LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+        return ticketRepository.save(SlackTicket.builder()
+                .title(category + " ticket")
+                .category(category)
+                .status("OPEN")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private void message(SlackTicket ticket, float[] vector, LocalDateTime time) {
+        SlackMessage saved = messageRepository.save(SlackMessage.builder()
+                .ticket(ticket)
+                .slackText("message")
+                .slackUser("U1")
+                .channel("C1")
+                .slackMessageTime(time)
+                .createdAt(time)
+                .build());
+        search.addMessage(saved.getId(), ticket.getId(), ticket.getCategory(), time, Embedding.of(vector));
+    }
+
+    // Saved without going through the backend, like rows written before it was switched on
+    private SlackMessage stored(SlackTicket ticket, byte[] embeddingData, LocalDateTime time) {
+        return messageRepository.saveAndFlush(SlackMessage.builder()
+                .ticket(ticket)
+                .slackText("message")
+                .slackUser("U1")
+                .channel("C1")
+                .embeddingData(embeddingData)
+                .slackMessageTime(time)
+                .createdAt(time)
+                .build());
+    }
+
+    private float[] jitter(float[] base, float amount) {
+        float[] vector = base.clone();
+        for (int i = 0; i < vector.length; i++) vector[i] += amount * (float) random.nextGaussian();
+        return vector;
+    }
+}
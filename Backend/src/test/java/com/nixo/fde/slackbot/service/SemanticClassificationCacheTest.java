@@ -0,0 +1,94 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import com.nixo.fde.slackbot.payload.Embedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SemanticClassificationCacheTest {
+
+    private static final String CACHED = "the export button on the reports page throws an error";
+    private static final String REWORDED = "the export button on the reports page throws an error again";
+
+    private EmbeddingBatchService embeddingService;
+    private SemanticClassificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        embeddingService = mock(EmbeddingBatchService.class);
+        cache = new SemanticClassificationCache(embeddingService);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlHours", 24L);
+        ReflectionTestUtils.setField(cache, "minJaccard", 0.8);
+        ReflectionTestUtils.setField(cache, "minTokens", 4);
+        ReflectionTestUtils.setField(cache, "bands", 16);
+        ReflectionTestUtils.setField(cache, "rows", 2);
+        ReflectionTestUtils.setField(cache, "confirmSimilarity", 0.92);
+        ReflectionTestUtils.setField(cache, "auditRate", 0.0);
+        cache.init();
+        cache.put(CACHED, new ClassificationResultDto(true, "BUG", "Export error", 0.9));
+    }
+
+    @Test
+    void identicalWordSetHitsWithoutConfirmation() {
+        ReflectionTestUtils.setField(cache, "confirmWithEmbedding", true);
+
+        SemanticClassificationCache.Hit hit = cache.lookupAsync(CACHED.toUpperCase()).join();
+
+        assertNotNull(hit);
+        assertEquals("BUG", hit.getResult().getCategory());
+        verify(embeddingService, never()).generateEmbeddingAsync(anyString());
+    }
+
+    @Test
+    void confirmationWaitsForTheAsyncEmbeddingsInsteadOfBlocking() {
+        ReflectionTestUtils.setField(cache, "confirmWithEmbedding", true);
+        CompletableFuture<Embedding> pending = new CompletableFuture<>();
+        when(embeddingService.generateEmbeddingAsync(REWORDED)).thenReturn(pending);
+        when(embeddingService.generateEmbeddingAsync(CACHED))
+                .thenReturn(CompletableFuture.completedFuture(Embedding.of(new float[]{1f, 0f})));
+
+        CompletableFuture<SemanticClassificationCache.Hit> lookup = cache.lookupAsync(REWORDED);
+
+        assertFalse(lookup.isDone());
+        pending.complete(Embedding.of(new float[]{1f, 0.01f}));
+        assertNotNull(lookup.join());
+        verify(embeddingService, never()).generateEmbedding(anyString());
+    }
+
+    @Test
+    void dissimilarEmbeddingsRejectTheMatch() {
+        ReflectionTestUtils.setField(cache, "confirmWithEmbedding", true);
+        when(embeddingService.generateEmbeddingAsync(REWORDED))
+                .thenReturn(CompletableFuture.completedFuture(Embedding.of(new float[]{0f, 1f})));
+        when(embeddingService.generateEmbeddingAsync(CACHED))
+                .thenReturn(CompletableFuture.completedFuture(Embedding.of(new float[]{1f, 0f})));
+
+        assertNull(cache.lookupAsync(REWORDED).join());
+        assertEquals(1L, cache.getStats().get("rejectedByEmbedding"));
+    }
+
+    @Test
+    void rewordingHitsWhenConfirmationIsOff() {
+        SemanticClassificationCache.Hit hit = cache.lookupAsync(REWORDED).join();
+
+        assertNotNull(hit);
+        assertTrue(hit.getResult().isRelevant());
+        verify(embeddingService, never()).generateEmbeddingAsync(anyString());
+    }
+}
@@ -0,0 +1,110 @@
+package com.nixo.fde.slackbot.service;
+
+import com.nixo.fde.slackbot.models.SlackTicket;
+import com.nixo.fde.slackbot.payload.SlackTicketStatusDto;
+import com.nixo.fde.slackbot.repository.SlackTicketRepository;
+import com.nixo.fde.slackbot.utils.ApplicationUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent status changes against a real Postgres: the counters must match a recount.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TicketCounterService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TicketCounterServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TicketCounterService counterService;
+
+    @Autowired
+    private SlackTicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentIdenticalStatusChangesApplyTheDeltaOnce() throws Exception {
+        SlackTicketStatusDto before = counterService.getStats();
+        Long ticketId = createTicket("BUG");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return counterService.updateStatus(ticketId, "CLOSED");
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SlackTicketStatusDto after = counterService.getStats();
+        assertEquals(before.getTotalTickets() + 1, after.getTotalTickets());
+        assertEquals(before.getOpenTickets(), after.getOpenTickets());
+    }
+
+    @Test
+    void reopeningRestoresTheOpenCount() {
+        SlackTicketStatusDto before = counterService.getStats();
+        Long ticketId = createTicket("FEATURE");
+
+        counterService.updateStatus(ticketId, "CLOSED");
+        counterService.updateStatus(ticketId, "RESOLVED");
+        assertEquals(before.getOpenTickets(), counterService.getStats().getOpenTickets());
+
+        counterService.updateStatus(ticketId, "OPEN");
+        assertEquals(before.getOpenTickets() + 1, counterService.getStats().getOpenTickets());
+    }
+
+    // ================= HELPER METHODS =================
+
+    private Long createTicket(String category) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = ApplicationUtils.getCurrentUtcDateTime();
+            SlackTicket ticket = ticketRepository.save(SlackTicket.builder()
+                    .title(category + " ticket")
+                    .category(category)
+                    .status("OPEN")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            counterService.ticketCreated(ticket);
+            return ticket.getId();
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationUtilsTest {
+
+    @Test
+    void boundedDistanceMatchesFullDistanceUpToTheBound() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 5_000; trial++) {
+            String s = randomString(random, random.nextInt(12));
+            String t = random.nextBoolean() ? mutate(s, random, random.nextInt(5)) : randomString(random, random.nextInt(12));
+            int full = levenshtein(s, t);
+            for (int max = 0; max <= 6; max++) {
+                assertEquals(Math.min(full, max + 1), ApplicationUtils.getBoundedLevenshteinDistance(s, t, max),
+                        "\"" + s + "\" vs \"" + t + "\" with max " + max);
+            }
+        }
+    }
+
+    @Test
+    void boundedDistanceEdgeCases() {
+        assertEquals(0, ApplicationUtils.getBoundedLevenshteinDistance("", "", 0));
+        assertEquals(3, ApplicationUtils.getBoundedLevenshteinDistance("", "abc", 3));
+        assertEquals(3, ApplicationUtils.getBoundedLevenshteinDistance("abc", "", 2));
+        assertEquals(0, ApplicationUtils.getBoundedLevenshteinDistance("same", "same", 0));
+        assertEquals(1, ApplicationUtils.getBoundedLevenshteinDistance("same", "sane", 0));
+        // Exactly at the bound is reported, one past it is capped
+        assertEquals(2, ApplicationUtils.getBoundedLevenshteinDistance("kitten", "sittin", 2));
+        assertEquals(3, ApplicationUtils.getBoundedLevenshteinDistance("kitten", "sitting", 2));
+        // Length difference alone exceeds the bound
+        assertEquals(2, ApplicationUtils.getBoundedLevenshteinDistance("a", "abcdef", 1));
+    }
+
+    @Test
+    void similarityThresholdAllowsTheExpectedNumberOfEdits() {
+        // 10 chars at 0.90 allows exactly one edit, despite 1 - 0.9 being slightly below 0.1
+        assertTrue(ApplicationUtils.isStringSimilar("abcdefghij", "abcdefghiX", 0.90));
+        assertFalse(ApplicationUtils.isStringSimilar("abcdefghij", "abcdefghXY", 0.90));
+        assertTrue(ApplicationUtils.isStringSimilar("", "", 0.90));
+        assertFalse(ApplicationUtils.isStringSimilar("short", "", 0.90));
+        assertTrue(ApplicationUtils.isStringSimilar("anything", "different", 0.0));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static int levenshtein(String s, String t) {
+        int[][] d = new int[s.length() + 1][t.length() + 1];
+        for (int i = 0; i <= s.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= t.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= s.length(); i++) {
+            for (int j = 1; j <= t.length(); j++) {
+                int cost = s.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1));
+            }
+        }
+        return d[s.length()][t.length()];
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + random.nextInt(3)));
+        return sb.toString();
+    }
+
+    private static String mutate(String s, Random random, int edits) {
+        StringBuilder sb = new StringBuilder(s);
+        for (int e = 0; e < edits; e++) {
+            int op = sb.length() == 0 ? 2 : random.nextInt(3);
+            int position = random.nextInt(Math.max(1, sb.length()));
+            switch (op) {
+                case 0 -> sb.setCharAt(position, (char) ('a' + random.nextInt(3)));
+                case 1 -> sb.deleteCharAt(position);
+                default -> sb.insert(position, (char) ('a' + random.nextInt(3)));
+            }
+        }
+        return sb.toString();
+    }
+}
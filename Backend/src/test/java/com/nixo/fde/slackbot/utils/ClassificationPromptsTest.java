@@ -0,0 +1,73 @@
+package com.nixo.fde.slackbot.utils;
+
+import com.nixo.fde.slackbot.payload.ClassificationResultDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassificationPromptsTest {
+
+    @Test
+    void batchPromptEmbedsMessagesAsJsonWithoutAFixedIrrelevantIndex() {
+        String prompt = ClassificationPrompts.buildBatchClassificationPrompt(List.of("login is \"broken\"", "thanks!"));
+
+        assertTrue(prompt.contains("[\"login is \\\"broken\\\"\",\"thanks!\"]"));
+        assertFalse(prompt.contains("\"index\":1"));
+    }
+
+    @Test
+    void batchResponseFillsSlotsByIndexAndLeavesGapsForFallback() {
+        String response = """
+                ```json
+                [{"index":2,"relevant":true,"category":"BUG","title":"Login broken","confidence":0.9},
+                 {"index":0,"relevant":false,"category":"NONE","title":null,"confidence":0.8},
+                 {"index":7,"relevant":true,"category":"BUG","title":"out of range","confidence":0.9},
+                 {"index":1,"relevant":true}]
+                ```""";
+        List<ClassificationResultDto> results = new ArrayList<>(Collections.nCopies(3, null));
+
+        ClassificationPrompts.parseBatchClassificationResponse("test", response, results);
+
+        assertFalse(results.get(0).isRelevant());
+        assertNull(results.get(0).getTitle());
+        assertNull(results.get(1));
+        assertEquals("Login broken", results.get(2).getTitle());
+        assertEquals("BUG", results.get(2).getCategory());
+    }
+
+    @Test
+    void unparseableBatchResponseLeavesAllSlotsEmpty() {
+        List<ClassificationResultDto> results = new ArrayList<>(Collections.nCopies(2, null));
+
+        ClassificationPrompts.parseBatchClassificationResponse("test", "sorry, I can't help with that", results);
+
+        assertNull(results.get(0));
+        assertNull(results.get(1));
+    }
+
+    @Test
+    void singleResponseParsesAndRejectsGarbage() {
+        ClassificationResultDto result = ClassificationPrompts.parseClassification(
+                "```\n{\"relevant\":true,\"category\":\"SUPPORT\",\"title\":\"How to export\",\"confidence\":0.7}\n```");
+
+        assertTrue(result.isRelevant());
+        assertEquals("SUPPORT", result.getCategory());
+        assertEquals(0.7, result.getConfidence(), 1e-9);
+        assertThrows(RuntimeException.class, () -> ClassificationPrompts.parseClassification("not json"));
+    }
+
+    @Test
+    void stripCodeFencesHandlesTaggedAndBareFences() {
+        assertEquals("{}", ClassificationPrompts.stripCodeFences("```json\n{}\n```"));
+        assertEquals("{}", ClassificationPrompts.stripCodeFences("  ```{}```  "));
+        assertEquals("{}", ClassificationPrompts.stripCodeFences("{}"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.nixo.fde.slackbot.utils;
+
+import com.nixo.fde.slackbot.payload.Embedding;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingCodecTest {
+
+    @Test
+    void float32RoundTripIsExact() {
+        float[] values = randomValues(new Random(1), 768);
+
+        byte[] encoded = EmbeddingCodec.encode(Embedding.of(values), EmbeddingCodec.Format.FLOAT32);
+
+        assertEquals(EmbeddingCodec.HEADER_BYTES + 768 * 4, encoded.length);
+        assertArrayEquals(values, EmbeddingCodec.decode(encoded).getValues(), 0.0f);
+    }
+
+    @Test
+    void float16RoundTripStaysWithinHalfPrecision() {
+        float[] values = randomValues(new Random(2), 768);
+
+        byte[] encoded = EmbeddingCodec.encode(Embedding.of(values), EmbeddingCodec.Format.FLOAT16);
+        float[] decoded = EmbeddingCodec.decode(encoded).getValues();
+
+        assertEquals(EmbeddingCodec.HEADER_BYTES + 768 * 2, encoded.length);
+        for (int i = 0; i < values.length; i++) {
+            // 11 significant bits: relative error of round-to-nearest is at most 2^-11
+            assertEquals(values[i], decoded[i], Math.abs(values[i]) * 0x1p-11f + 0x1p-25f);
+        }
+        assertTrue(Embedding.of(values).cosineSimilarity(Embedding.of(decoded)) > 0.99999);
+    }
+
+    @Test
+    void everyHalfValueSurvivesTheRoundTrip() {
+        for (int bits = 0; bits <= 0xffff; bits++) {
+            short half = (short) bits;
+            float value = EmbeddingCodec.halfToFloat(half);
+            if (Float.isNaN(value)) continue;
+            assertEquals(half, EmbeddingCodec.floatToHalf(value), "half bits " + Integer.toHexString(bits));
+        }
+    }
+
+    @Test
+    void float16HandlesSpecialValuesAndRounding() {
+        assertEquals((short) 0x0000, EmbeddingCodec.floatToHalf(0.0f));
+        assertEquals((short) 0x8000, EmbeddingCodec.floatToHalf(-0.0f));
+        assertEquals((short) 0x3c00, EmbeddingCodec.floatToHalf(1.0f));
+        assertEquals((short) 0x7bff, EmbeddingCodec.floatToHalf(65504f));
+        assertEquals((short) 0x7c00, EmbeddingCodec.floatToHalf(65520f));
+        assertEquals((short) 0xfc00, EmbeddingCodec.floatToHalf(Float.NEGATIVE_INFINITY));
+        assertTrue(Float.isNaN(EmbeddingCodec.halfToFloat(EmbeddingCodec.floatToHalf(Float.NaN))));
+        // Smallest subnormal, and values that underflow to zero
+        assertEquals((short) 0x0001, EmbeddingCodec.floatToHalf(0x1p-24f));
+        assertEquals((short) 0x0000, EmbeddingCodec.floatToHalf(0x1p-26f));
+        // Ties round to even: 1 + 2^-11 sits halfway between 1 and the next half
+        assertEquals((short) 0x3c00, EmbeddingCodec.floatToHalf(1.0f + 0x1p-11f));
+        assertEquals((short) 0x3c02, EmbeddingCodec.floatToHalf(1.0f + 3 * 0x1p-11f));
+    }
+
+    @Test
+    void emptyAndMalformedPayloads() {
+        assertNull(EmbeddingCodec.encode(Embedding.empty(), EmbeddingCodec.Format.FLOAT32));
+        assertTrue(EmbeddingCodec.decode(null).isEmpty());
+        assertTrue(EmbeddingCodec.decode(new byte[3]).isEmpty());
+
+        byte[] encoded = EmbeddingCodec.encode(Embedding.of(new float[]{1f, 2f}), EmbeddingCodec.Format.FLOAT32);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(truncated));
+
+        byte[] futureVersion = encoded.clone();
+        futureVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(futureVersion));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static float[] randomValues(Random random, int dimensions) {
+        float[] values = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) values[i] = (float) (random.nextGaussian() * 0.05);
+        return values;
+    }
+}
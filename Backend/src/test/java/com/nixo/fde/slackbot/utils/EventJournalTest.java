@@ -0,0 +1,161 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackRecordsInOrderAcrossSegments() throws IOException {
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            long[] ends = new long[20];
+            for (int i = 0; i < 20; i++) {
+                ends[i] = journal.append(event(i));
+            }
+            assertTrue(journal.getWriteOffset() > SEGMENT_SIZE, "expected the journal to roll");
+
+            List<EventJournal.Record> records = journal.read(0, 100);
+            assertEquals(20, records.size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(new String(event(i), StandardCharsets.UTF_8), text(records.get(i)));
+                assertEquals(ends[i], records.get(i).getNextOffset());
+            }
+            // Reading from the middle resumes at the same record
+            List<EventJournal.Record> tail = journal.read(records.get(12).getOffset(), 3);
+            assertEquals(text(records.get(12)), text(tail.get(0)));
+            assertEquals(3, tail.size());
+        }
+    }
+
+    @Test
+    void reopeningRecoversTheWriteOffsetAndKeepsAppending() throws IOException {
+        long end;
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) journal.append(event(i));
+            end = journal.getWriteOffset();
+            journal.sync(end);
+        }
+
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(end, journal.getWriteOffset());
+            journal.append(event(10));
+
+            List<EventJournal.Record> records = journal.read(0, 100);
+            assertEquals(11, records.size());
+            assertEquals("event-10", text(records.get(10)));
+        }
+    }
+
+    @Test
+    void tornTailRecordIsDroppedOnRecoveryAndOverwritten() throws IOException {
+        long secondEnd;
+        try (EventJournal journal = new EventJournal(directory, 4096)) {
+            journal.append(event(1));
+            secondEnd = journal.append(event(2));
+            journal.append(event(3));
+        }
+        // Crash half-way through writing the third record: its payload no longer matches the CRC
+        corrupt(directory.resolve(segmentName(0)), (int) secondEnd + 8 + 2);
+
+        try (EventJournal journal = new EventJournal(directory, 4096)) {
+            assertEquals(secondEnd, journal.getWriteOffset());
+            assertEquals(2, journal.read(0, 100).size());
+
+            journal.append(event(4));
+            List<EventJournal.Record> records = journal.read(0, 100);
+            assertEquals(3, records.size());
+            assertEquals("event-4", text(records.get(2)));
+        }
+    }
+
+    @Test
+    void checksumFailureStopsTheReadBeforeTheCorruptRecord() throws IOException {
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 20; i++) journal.append(event(i));
+        }
+        // Corrupt the third record of the first (already rolled, so never re-scanned) segment
+        int thirdRecord = 2 * (8 + event(0).length);
+        corrupt(directory.resolve(segmentName(0)), thirdRecord + 8);
+
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            List<EventJournal.Record> records = journal.read(0, 100);
+            assertEquals(2, records.size());
+            assertEquals("event-1", text(records.get(1)));
+        }
+    }
+
+    @Test
+    void committedOffsetAndRetentionSurviveRestart() throws IOException {
+        long committed;
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(0, journal.readCommittedOffset());
+            for (int i = 0; i < 20; i++) journal.append(event(i));
+            // Consumer has caught up to the first record of the second segment
+            committed = journal.read(0, 100).stream()
+                    .mapToLong(EventJournal.Record::getOffset)
+                    .filter(offset -> offset >= SEGMENT_SIZE)
+                    .findFirst()
+                    .orElseThrow();
+            journal.commitOffset(committed);
+            assertEquals(1, journal.deleteSegmentsBefore(committed));
+        }
+
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(committed, journal.readCommittedOffset());
+            assertEquals(SEGMENT_SIZE, journal.getStartOffset());
+            // An offset that retention removed skips forward to the oldest remaining segment
+            List<EventJournal.Record> records = journal.read(0, 100);
+            assertEquals(journal.getStartOffset(), records.get(0).getOffset());
+            assertEquals("event-19", text(records.get(records.size() - 1)));
+        }
+    }
+
+    @Test
+    void rejectsRecordsThatCannotFitInASegment() throws IOException {
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[0]));
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[SEGMENT_SIZE]));
+        }
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static byte[] event(int i) {
+        return String.format("event-%d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(EventJournal.Record record) {
+        return new String(record.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    private static String segmentName(long base) {
+        return String.format("%020d.log", base);
+    }
+
+    private static void corrupt(Path file, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.flip();
+            byte flipped = (byte) ~b.get();
+            channel.write(ByteBuffer.wrap(new byte[]{flipped}), position);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedLogisticRegressionTest {
+
+    private static final String[] RELEVANT = {
+            "the export button is broken", "login fails with error 500", "can we get sso support",
+            "how do I reset my api token", "dashboard crashes on ios", "webhook delivery is timing out",
+            "is there a way to filter reports by date", "invoice pdf shows the wrong total",
+    };
+    private static final String[] CHATTER = {
+            "thanks!", "sounds good", "see you tomorrow", "good morning team", "lol", "ok", "got it 👍",
+            "anyone up for lunch", "have a great weekend", "congrats on the launch",
+    };
+
+    @Test
+    void learnsToSeparateObviousChatterFromRequests() {
+        HashedLogisticRegression model = new HashedLogisticRegression(16, 0.5, 1e-6);
+        Random random = new Random(1);
+        for (int i = 0; i < 2_000; i++) {
+            boolean relevant = random.nextBoolean();
+            String[] pool = relevant ? RELEVANT : CHATTER;
+            model.train(pool[random.nextInt(pool.length)], relevant);
+        }
+
+        assertEquals(2_000, model.getSamples());
+        for (String text : RELEVANT) assertTrue(model.predict(text) > 0.9, text + " -> " + model.predict(text));
+        for (String text : CHATTER) assertTrue(model.predict(text) < 0.1, text + " -> " + model.predict(text));
+        // Unseen phrasing still leans the right way through shared words and trigrams
+        assertTrue(model.predict("export to csv is broken") > 0.5);
+        assertTrue(model.predict("thanks, sounds great") < 0.5);
+    }
+
+    @Test
+    void untrainedModelAndBlankTextAreNeutral() {
+        HashedLogisticRegression model = new HashedLogisticRegression(12, 0.5, 1e-6);
+
+        assertEquals(0.5, model.predict("anything"), 1e-9);
+        assertEquals(0.5, model.predict("   "), 1e-9);
+        assertEquals(0, model.features(null).length);
+        assertTrue(model.features("ok").length > 0);
+    }
+
+    @Test
+    void savedWeightsReloadIntoTheSameLayoutOnly() throws IOException {
+        HashedLogisticRegression model = new HashedLogisticRegression(12, 0.5, 1e-6);
+        for (int i = 0; i < 200; i++) {
+            model.train(RELEVANT[i % RELEVANT.length], true);
+            model.train(CHATTER[i % CHATTER.length], false);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        model.writeTo(new DataOutputStream(bytes));
+
+        HashedLogisticRegression reloaded = new HashedLogisticRegression(12, 0.5, 1e-6);
+        assertTrue(reloaded.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        assertEquals(model.getSamples(), reloaded.getSamples());
+        assertEquals(model.predict("login fails"), reloaded.predict("login fails"), 0.0);
+
+        HashedLogisticRegression otherLayout = new HashedLogisticRegression(10, 0.5, 1e-6);
+        assertFalse(otherLayout.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        assertEquals(0, otherLayout.getSamples());
+        assertEquals(0.5, otherLayout.predict("login fails"), 1e-9);
+    }
+}
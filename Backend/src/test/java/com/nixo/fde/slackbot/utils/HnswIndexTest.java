@@ -0,0 +1,123 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void searchRecallMatchesBruteForce() {
+        HnswIndex index = new HnswIndex(16, 100);
+        Random random = new Random(4);
+        float[][] normalised = new float[2_000][];
+        for (int i = 0; i < normalised.length; i++) {
+            float[] vector = randomVector(random);
+            index.add(i, vector);
+            normalised[i] = HnswIndex.normalise(vector);
+        }
+
+        int k = 10;
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = HnswIndex.normalise(randomVector(random));
+            Set<Long> exact = new HashSet<>();
+            IntStream.range(0, normalised.length).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -VectorMath.dot(query, normalised[i])))
+                    .limit(k)
+                    .forEach(i -> exact.add((long) i));
+
+            for (HnswIndex.SearchResult result : index.search(query, k, 64, null)) {
+                if (exact.contains(result.getId())) hits++;
+            }
+        }
+
+        double recall = (double) hits / (queries * k);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void reAddingAnIdUpdatesInPlaceWithoutTombstones() {
+        HnswIndex index = new HnswIndex(8, 50);
+        Random random = new Random(1);
+        for (long id = 0; id < 200; id++) {
+            index.add(id, randomVector(random));
+        }
+
+        // A busy ticket: its centroid is re-indexed on every message
+        float[] centroid = randomVector(random);
+        for (int i = 0; i < 500; i++) {
+            float[] step = randomVector(random);
+            for (int d = 0; d < DIMENSIONS; d++) centroid[d] += 0.05f * step[d];
+            index.add(7L, centroid);
+        }
+
+        assertEquals(0, index.getDeletedCount());
+        assertEquals(200, index.size());
+        List<HnswIndex.SearchResult> results = index.search(centroid, 1, 16, null);
+        assertEquals(7L, results.get(0).getId());
+        assertEquals(1.0, results.get(0).getSimilarity(), 1e-4);
+    }
+
+    @Test
+    void searchWidensPastTombstonesToFindLiveResults() {
+        HnswIndex index = new HnswIndex(8, 50);
+        Random random = new Random(2);
+        float[] query = randomVector(random);
+
+        // Many removed near-copies of the query surround the one live match
+        for (long id = 0; id < 300; id++) {
+            index.add(id, jitter(query, random, 0.01f));
+        }
+        for (long id = 0; id < 299; id++) {
+            index.remove(id);
+        }
+        for (long id = 1000; id < 1200; id++) {
+            index.add(id, randomVector(random));
+        }
+
+        List<HnswIndex.SearchResult> results = index.search(query, 3, 8, null);
+        assertEquals(3, results.size());
+        assertEquals(299L, results.get(0).getId());
+    }
+
+    @Test
+    void searchSkipsFilteredIds() {
+        HnswIndex index = new HnswIndex(8, 50);
+        Random random = new Random(3);
+        for (long id = 0; id < 500; id++) {
+            index.add(id, randomVector(random));
+        }
+
+        List<HnswIndex.SearchResult> results = index.search(randomVector(random), 5, 8, id -> id % 50 == 0);
+        assertEquals(5, results.size());
+        for (HnswIndex.SearchResult result : results) {
+            assertTrue(result.getId() % 50 == 0);
+        }
+    }
+
+    // ================= HELPER METHODS =================
+
+    static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) vector[d] = (float) random.nextGaussian();
+        return vector;
+    }
+
+    private static float[] jitter(float[] base, Random random, float amount) {
+        float[] vector = base.clone();
+        for (int d = 0; d < DIMENSIONS; d++) vector[d] += amount * (float) random.nextGaussian();
+        return vector;
+    }
+}
@@ -0,0 +1,102 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedSerialExecutorTest {
+
+    @Test
+    void asyncTasksForOneKeyRunInOrderWithoutHoldingTheWorker() throws Exception {
+        // One worker: if a pending async task held it, the other key could never run
+        ExecutorService pool = Executors.newFixedThreadPool(1);
+        try {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture<Void> gate = new CompletableFuture<>();
+
+            CompletableFuture<Void> first = executor.submitAsync("a", () -> {
+                events.add("a1-start");
+                return gate.thenRun(() -> events.add("a1-end"));
+            });
+            CompletableFuture<Void> second = executor.submitAsync("a", () -> {
+                events.add("a2");
+                return CompletableFuture.completedFuture(null);
+            });
+            CompletableFuture<Void> other = executor.submit("b", () -> events.add("b"));
+
+            other.get(5, TimeUnit.SECONDS);
+            assertFalse(second.isDone());
+            assertTrue(events.contains("b"));
+            assertFalse(events.contains("a2"));
+
+            gate.complete(null);
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+            List<String> forKeyA = events.stream().filter(e -> e.startsWith("a")).toList();
+            assertEquals(List.of("a1-start", "a1-end", "a2"), forKeyA);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedStageCompletesExceptionallyAndDoesNotBlockTheKey() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+            CompletableFuture<Void> failing = executor.submitAsync("k",
+                    () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+            CompletableFuture<Void> throwing = executor.submitAsync("k", () -> {
+                throw new IllegalStateException("thrown");
+            });
+            CompletableFuture<Void> after = executor.submit("k", () -> { });
+
+            after.get(5, TimeUnit.SECONDS);
+            assertTrue(failing.isCompletedExceptionally());
+            assertTrue(throwing.isCompletedExceptionally());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void keysAreDroppedOnceTheirLastTaskCompletes() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+            CompletableFuture<Void> gate = new CompletableFuture<>();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submitAsync("key" + (i % 10), () -> gate));
+            }
+            assertEquals(10, executor.activeKeys());
+
+            gate.complete(null);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(0, executor.activeKeys());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectedTaskOnAnIdleKeyThrowsAndDoesNotBlockTheKey() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(1);
+        pool.shutdown();
+        KeyedSerialExecutor rejecting = new KeyedSerialExecutor(pool);
+        assertThrows(RejectedExecutionException.class, () -> rejecting.submit("k", () -> { }));
+        assertEquals(0, rejecting.activeKeys());
+    }
+}
@@ -0,0 +1,50 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        KeysetCursor[] cursors = {
+                new KeysetCursor(LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_000), 42L),
+                // toString drops zero seconds and fractions; decode must still accept it
+                new KeysetCursor(LocalDateTime.of(2024, 3, 1, 9, 30), 7L),
+                new KeysetCursor(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999_999_999), Long.MAX_VALUE),
+        };
+        for (KeysetCursor cursor : cursors) {
+            assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+        }
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        for (long id = 0; id < 500; id++) {
+            String encoded = new KeysetCursor(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(id * 7919), id * 104_729).encode();
+            assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+        }
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("2024-01-01T00:00")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("yesterday|5")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("2024-01-01T00:00|five")));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
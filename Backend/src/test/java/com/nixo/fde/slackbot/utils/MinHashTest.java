@@ -0,0 +1,111 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashTest {
+
+    // Same shape as the semantic classification cache defaults (8 bands x 4 rows)
+    private static final int BANDS = 8;
+    private static final int ROWS = 4;
+
+    @Test
+    void tokensAndShinglesNormaliseText() {
+        assertEquals(List.of("login", "fails", "on", "ios", "17"), new ArrayList<>(MinHash.tokens("Login FAILS on iOS-17!!")));
+        assertEquals(Set.of("ab ", "b c", " cd"), MinHash.shingles("  AB\t CD ", 3));
+        assertEquals(Set.of("hi"), MinHash.shingles("Hi", 3));
+        assertTrue(MinHash.tokens(null).isEmpty());
+        assertEquals(1.0, MinHash.jaccard(Set.of(), Set.of()), 0.0);
+        assertEquals(0.5, MinHash.jaccard(Set.of("a", "b"), Set.of("b", "c", "a", "d")), 1e-9);
+    }
+
+    @Test
+    void signatureIsDeterministicAndOrderIndependent() {
+        MinHash minHash = new MinHash(BANDS, ROWS);
+        long[] a = minHash.signature(MinHash.tokens("the export button is broken"));
+        long[] b = new MinHash(BANDS, ROWS).signature(MinHash.tokens("broken is button export the"));
+
+        assertArrayEquals(a, b);
+        assertEquals(BANDS, minHash.getBands());
+    }
+
+    @Test
+    void signatureAgreementEstimatesJaccard() {
+        MinHash minHash = new MinHash(64, 4);
+        Random random = new Random(1);
+        double totalError = 0;
+        int pairs = 200;
+        for (int p = 0; p < pairs; p++) {
+            List<String> words = sentence(random, 20);
+            List<String> edited = edit(words, random, random.nextInt(12));
+            Set<String> a = MinHash.tokens(String.join(" ", words));
+            Set<String> b = MinHash.tokens(String.join(" ", edited));
+
+            long[] sa = minHash.signature(a);
+            long[] sb = minHash.signature(b);
+            int agree = 0;
+            for (int i = 0; i < sa.length; i++) if (sa[i] == sb[i]) agree++;
+            totalError += Math.abs((double) agree / sa.length - MinHash.jaccard(a, b));
+        }
+        assertTrue(totalError / pairs < 0.05, "mean estimation error " + totalError / pairs);
+    }
+
+    @Test
+    void nearDuplicatesShareABandAndUnrelatedTextsRarelyDo() {
+        MinHash minHash = new MinHash(BANDS, ROWS);
+        Random random = new Random(2);
+        int pairs = 500;
+        int nearHits = 0;
+        int unrelatedHits = 0;
+        for (int p = 0; p < pairs; p++) {
+            List<String> words = sentence(random, 12);
+            // One word swapped in twelve: Jaccard ~0.85, above the cache's 0.8 threshold
+            List<String> nearDuplicate = edit(words, random, 1);
+            List<String> unrelated = sentence(random, 12);
+
+            long[] original = minHash.signature(MinHash.tokens(String.join(" ", words)));
+            if (shareBand(minHash, original, minHash.signature(MinHash.tokens(String.join(" ", nearDuplicate))))) nearHits++;
+            if (shareBand(minHash, original, minHash.signature(MinHash.tokens(String.join(" ", unrelated))))) unrelatedHits++;
+        }
+
+        assertTrue(nearHits >= pairs * 0.95, "near-duplicate candidate recall " + nearHits + "/" + pairs);
+        assertTrue(unrelatedHits <= pairs * 0.05, "unrelated candidates " + unrelatedHits + "/" + pairs);
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static final String[] VOCABULARY = (
+            "login export dashboard button broken error page timeout slow api customer invoice "
+                    + "report sync upload download mobile android ios crash password reset email webhook "
+                    + "billing plan seat admin permission role sso saml token expired refresh chart filter "
+                    + "search index csv pdf attachment notification slack channel thread message integration").split(" ");
+
+    static List<String> sentence(Random random, int length) {
+        List<String> words = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) words.add(VOCABULARY[random.nextInt(VOCABULARY.length)] + random.nextInt(50));
+        return words;
+    }
+
+    private static List<String> edit(List<String> words, Random random, int replacements) {
+        List<String> edited = new ArrayList<>(words);
+        for (int i = 0; i < replacements; i++) {
+            edited.set(random.nextInt(edited.size()), "new" + random.nextInt(1_000_000));
+        }
+        return edited;
+    }
+
+    private static boolean shareBand(MinHash minHash, long[] a, long[] b) {
+        for (int band = 0; band < minHash.getBands(); band++) {
+            if (minHash.bandKey(a, band) == minHash.bandKey(b, band)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearDuplicateIndexTest {
+
+    // Same shape as the grouping fuzzy-cache defaults
+    private static final int BANDS = 16;
+    private static final int ROWS = 2;
+    private static final int SHINGLE_SIZE = 3;
+    private static final int MAX_CANDIDATES = 16;
+
+    @Test
+    void typoVariantsFindTheirOriginalAmongTheCandidates() {
+        NearDuplicateIndex index = new NearDuplicateIndex(BANDS, ROWS, SHINGLE_SIZE, 50_000);
+        Random random = new Random(1);
+        List<String> originals = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String text = String.join(" ", MinHashTest.sentence(random, 8));
+            originals.add(text);
+            index.add(text);
+        }
+
+        int queries = 300;
+        int found = 0;
+        int verifiable = 0;
+        for (int q = 0; q < queries; q++) {
+            String original = originals.get(random.nextInt(originals.size()));
+            String variant = typo(original, random);
+            if (!ApplicationUtils.isStringSimilar(original, variant, 0.90)) continue;
+            verifiable++;
+            if (index.candidates(variant, MAX_CANDIDATES).contains(original)) found++;
+        }
+
+        assertTrue(verifiable > queries / 2);
+        assertTrue(found >= verifiable * 0.98, "candidate recall " + found + "/" + verifiable);
+    }
+
+    @Test
+    void candidatesAreRankedBySharedBandsAndLimited() {
+        NearDuplicateIndex index = new NearDuplicateIndex(BANDS, ROWS, SHINGLE_SIZE, 100);
+        index.add("the export to csv button is broken on the dashboard");
+        index.add("the export to pdf button is broken on the dashboard page");
+        index.add("completely unrelated lunch plans for friday");
+
+        List<String> candidates = index.candidates("the export to csv buton is broken on the dashboard", 5);
+        assertEquals("the export to csv button is broken on the dashboard", candidates.get(0));
+        assertFalse(candidates.contains("completely unrelated lunch plans for friday"));
+        assertEquals(1, index.candidates("the export to csv buton is broken on the dashboard", 1).size());
+        assertTrue(index.candidates("zzzz qqqq", 5).isEmpty());
+    }
+
+    @Test
+    void removeAndEvictionKeepTheIndexBounded() {
+        NearDuplicateIndex index = new NearDuplicateIndex(BANDS, ROWS, SHINGLE_SIZE, 3);
+        index.add("first message about login");
+        index.add("first message about login");
+        assertEquals(1, index.size());
+
+        index.add("second message about billing");
+        index.add("third message about exports");
+        index.add("fourth message about webhooks");
+        assertEquals(3, index.size());
+        // The oldest entry was evicted and no longer comes back as a candidate
+        assertFalse(index.candidates("first message about login", 10).contains("first message about login"));
+
+        index.remove("second message about billing");
+        assertEquals(2, index.size());
+        assertFalse(index.candidates("second message about billing", 10).contains("second message about billing"));
+        assertTrue(index.candidates("third message about exports", 10).contains("third message about exports"));
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static String typo(String text, Random random) {
+        StringBuilder sb = new StringBuilder(text);
+        int position = random.nextInt(sb.length());
+        switch (random.nextInt(3)) {
+            case 0 -> sb.setCharAt(position, (char) ('a' + random.nextInt(26)));
+            case 1 -> sb.deleteCharAt(position);
+            default -> sb.insert(position, (char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package com.nixo.fde.slackbot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeBucketedBloomFilterTest {
+
+    private static final int BUCKETS = 4;
+    private static final long BUCKET_MILLIS = 1_000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void noFalseNegativesInsideTheGuaranteedWindow() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(BUCKETS, BUCKET_MILLIS, 5_000, 0.01);
+        long window = filter.getGuaranteedWindowMillis();
+        assertEquals((BUCKETS - 1) * BUCKET_MILLIS, window);
+
+        // Spread puts over the whole window, including both edges of every slice
+        long now = START + window;
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(key(i), START + i * window / 9_999);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(key(i), now), "lost " + key(i));
+        }
+    }
+
+    @Test
+    void keysExpireOnceTheirSliceLeavesTheWindow() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(BUCKETS, BUCKET_MILLIS, 1_000, 1e-6);
+        filter.put("1700000000.000100", START);
+
+        assertTrue(filter.mightContain("1700000000.000100", START + filter.getGuaranteedWindowMillis()));
+        assertFalse(filter.mightContain("1700000000.000100", START + BUCKETS * BUCKET_MILLIS));
+
+        // A newer put recycles the bucket; the old key must be gone from it, not just hidden
+        filter.put("1700000004.000200", START + BUCKETS * BUCKET_MILLIS);
+        assertFalse(filter.mightContain("1700000000.000100", START + BUCKETS * BUCKET_MILLIS));
+        assertTrue(filter.mightContain("1700000004.000200", START + BUCKETS * BUCKET_MILLIS));
+    }
+
+    @Test
+    void putsBeforeTheCurrentWindowAreIgnored() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(BUCKETS, BUCKET_MILLIS, 1_000, 1e-6);
+        filter.put("fresh", START + BUCKETS * BUCKET_MILLIS);
+        filter.put("stale", START);
+
+        assertFalse(filter.mightContain("stale", START + BUCKETS * BUCKET_MILLIS));
+        assertTrue(filter.mightContain("fresh", START + BUCKETS * BUCKET_MILLIS));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(BUCKETS, BUCKET_MILLIS, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(key(i), START);
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(key(i), START)) falsePositives++;
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void concurrentPutAndLookupAcrossBucketRotationNeverLosesAKey() throws Exception {
+        int threads = 8;
+        int rounds = 200;
+        long step = BUCKET_MILLIS / 2;
+        // Large buckets so clearing one on rotation takes long enough to overlap other writers
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(BUCKETS, BUCKET_MILLIS, 200_000, 0.01);
+        long window = filter.getGuaranteedWindowMillis();
+        CyclicBarrier roundDone = new CyclicBarrier(threads);
+        Queue<String> misses = new ConcurrentLinkedQueue<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int round = 0; round < rounds; round++) {
+                        long now = START + round * step;
+                        // The first writer of a new slice clears a bucket while the others look up
+                        filter.put(key(round, thread), now);
+                        if (!filter.mightContain(key(round, thread), now)) misses.add(key(round, thread) + "@" + round);
+                        // Every earlier round finished before the barrier, so all its keys must be visible
+                        for (int past = round - 1; past >= 0 && now - (START + past * step) <= window; past--) {
+                            for (int w = 0; w < threads; w++) {
+                                if (!filter.mightContain(key(past, w), now)) misses.add(key(past, w) + "@" + round);
+                            }
+                        }
+                        roundDone.await(10, TimeUnit.SECONDS);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(misses.isEmpty(), "false negatives: " + misses);
+    }
+
+    // ================= HELPER METHODS =================
+
+    private static String key(int i) {
+        return String.format("%d.%06d", 1_700_000_000 + i / 1_000, i % 1_000_000);
+    }
+
+    private static String key(int round, int thread) {
+        return "r" + round + "-t" + thread;
+    }
+}
@@ -0,0 +1,4 @@
+-- Loaded by PgVectorTicketSearchTest after Hibernate creates the schema (one statement per line)
+CREATE EXTENSION IF NOT EXISTS vector;
+ALTER TABLE slack_messages ADD COLUMN IF NOT EXISTS embedding_vec vector(3);
+CREATE INDEX IF NOT EXISTS idx_embedding_vec_hnsw ON slack_messages USING hnsw (embedding_vec vector_cosine_ops) WITH (m = 16, ef_construction = 64);
@@ -5,16 +5,31 @@
 -- Drop tables if they exist (for clean setup)
 DROP TABLE IF EXISTS slack_messages CASCADE;
 DROP TABLE IF EXISTS slack_tickets CASCADE;
+DROP TABLE IF EXISTS ticket_counters CASCADE;
+DROP SEQUENCE IF EXISTS slack_tickets_seq;
+DROP SEQUENCE IF EXISTS slack_messages_seq;
+
+-- ============================================
+-- Id sequences
+-- INCREMENT BY must equal allocationSize on the entities (50): the app reserves
+-- 50 ids per nextval, so inserts need no id round trip and can be JDBC-batched
+-- ============================================
+CREATE SEQUENCE slack_tickets_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE slack_messages_seq START WITH 1 INCREMENT BY 50;
 
 -- ============================================
 -- Table: slack_tickets
 -- Stores grouped issues/requests from customers
 -- ============================================
 CREATE TABLE slack_tickets (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,                      -- from slack_tickets_seq
     title VARCHAR(500) NOT NULL,
     category VARCHAR(50) NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    message_count INTEGER NOT NULL DEFAULT 0,   -- denormalised from slack_messages
+    last_message_at TIMESTAMP,
+    first_user VARCHAR(50),
+    first_channel VARCHAR(50),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
@@ -24,7 +39,7 @@ CREATE TABLE slack_tickets (
 -- Stores individual Slack messages
 -- ============================================
 CREATE TABLE slack_messages (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,                      -- from slack_messages_seq
     ticket_id BIGINT NOT NULL,
     slack_text VARCHAR(4000) NOT NULL,
     slack_user VARCHAR(50) NOT NULL,
@@ -33,6 +48,7 @@ CREATE TABLE slack_messages (
     thread_ts VARCHAR(50),
     channel_type VARCHAR(50),
     embedding TEXT,
+    embedding_data BYTEA,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     slack_message_time TIMESTAMP NOT NULL,
 
@@ -43,6 +59,17 @@ CREATE TABLE slack_messages (
         ON DELETE CASCADE
 );
 
+-- ============================================
+-- Table: ticket_counters
+-- Open/total tickets per category for the dashboard stats, maintained on
+-- ticket creation and status change (rebuilt at startup when empty)
+-- ============================================
+CREATE TABLE ticket_counters (
+    category VARCHAR(50) PRIMARY KEY,
+    open_count BIGINT NOT NULL,
+    total_count BIGINT NOT NULL
+);
+
 -- ============================================
 -- Indexes for Performance
 -- ============================================
@@ -71,6 +98,18 @@ CREATE INDEX idx_status ON slack_tickets(status);
 -- Index on updated_at for sorting by recent activity
 CREATE INDEX idx_updated_at ON slack_tickets(updated_at DESC);
 
+-- Keyset pagination of the ticket listing on (updated_at, id), with status/category filters
+CREATE INDEX idx_tickets_updated_id ON slack_tickets(updated_at DESC, id DESC);
+CREATE INDEX idx_tickets_status_updated_id ON slack_tickets(status, updated_at DESC, id DESC);
+CREATE INDEX idx_tickets_category_updated_id ON slack_tickets(category, updated_at DESC, id DESC);
+CREATE INDEX idx_tickets_status_category_updated_id ON slack_tickets(status, category, updated_at DESC, id DESC);
+
+-- Channel filter of the ticket listing
+CREATE INDEX idx_channel_ticket ON slack_messages(channel, ticket_id);
+
+-- Ticket message timeline pages (keyset on slack_message_time, id)
+CREATE INDEX idx_ticket_message_time ON slack_messages(ticket_id, slack_message_time, id);
+
 -- ============================================
 -- Trigger: Update updated_at on slack_tickets
 -- Automatically update timestamp when ticket changes
@@ -98,4 +137,58 @@ COMMENT ON COLUMN slack_tickets.category IS 'BUG, FEATURE_REQUEST, SUPPORT, QUES
 COMMENT ON COLUMN slack_tickets.status IS 'OPEN or CLOSED';
 COMMENT ON COLUMN slack_messages.slack_timestamp IS 'Unique Slack message timestamp (prevents duplicates)';
 COMMENT ON COLUMN slack_messages.thread_ts IS 'Slack thread timestamp for grouping threaded messages';
-COMMENT ON COLUMN slack_messages.embedding IS 'JSON array of embedding vectors for semantic similarity';
\ No newline at end of file
+COMMENT ON COLUMN slack_messages.embedding IS 'Legacy JSON array of embedding vectors (migrated to embedding_data at startup)';
+COMMENT ON COLUMN slack_messages.embedding_data IS 'Binary embedding: 8-byte header (version, element type, dims) + little-endian float32/float16';
+
+-- ============================================
+-- Migration: JSON embeddings -> binary (existing databases)
+-- The application converts rows in batches on startup
+-- (grouping.embedding.migration.enabled). Only the column needs adding:
+-- ============================================
+-- ALTER TABLE slack_messages ADD COLUMN IF NOT EXISTS embedding_data BYTEA;
+
+-- ============================================
+-- Migration: BIGSERIAL ids -> pooled sequences (existing databases)
+-- Start the sequences past the current ids; the old serial defaults are unused.
+-- ============================================
+-- CREATE SEQUENCE IF NOT EXISTS slack_tickets_seq INCREMENT BY 50;
+-- CREATE SEQUENCE IF NOT EXISTS slack_messages_seq INCREMENT BY 50;
+-- SELECT setval('slack_tickets_seq', COALESCE((SELECT MAX(id) FROM slack_tickets), 0) + 50);
+-- SELECT setval('slack_messages_seq', COALESCE((SELECT MAX(id) FROM slack_messages), 0) + 50);
+
+-- ============================================
+-- Migration: denormalised ticket columns (existing databases)
+-- Existing tickets are backfilled and ticket_counters rebuilt on startup.
+-- ============================================
+-- ALTER TABLE slack_tickets ADD COLUMN IF NOT EXISTS message_count INTEGER NOT NULL DEFAULT 0;
+-- ALTER TABLE slack_tickets ADD COLUMN IF NOT EXISTS last_message_at TIMESTAMP;
+-- ALTER TABLE slack_tickets ADD COLUMN IF NOT EXISTS first_user VARCHAR(50);
+-- ALTER TABLE slack_tickets ADD COLUMN IF NOT EXISTS first_channel VARCHAR(50);
+
+-- ============================================
+-- Optional: pgvector grouping backend (grouping.backend: pgvector)
+-- Set the dimension to the embedding model in use:
+-- 768 for Gemini text-embedding-004, 1536 for OpenAI text-embedding-3-small.
+-- Existing rows are backfilled from embedding_data on startup.
+-- pgvector 0.8+ is recommended: searches enable hnsw.iterative_scan so small
+-- categories and narrow time windows still find their nearest rows.
+-- ============================================
+-- CREATE EXTENSION IF NOT EXISTS vector;
+-- ALTER TABLE slack_messages ADD COLUMN IF NOT EXISTS embedding_vec vector(1536);
+-- CREATE INDEX IF NOT EXISTS idx_embedding_vec_hnsw
+--     ON slack_messages USING hnsw (embedding_vec vector_cosine_ops)
+--     WITH (m = 16, ef_construction = 64);
+
+-- ============================================
+-- Table: ai_cache_entries
+-- Persistent tier of the embedding/classification caches (ai.persistent-cache).
+-- Created by Hibernate (ddl-auto: update); listed here for manual setups.
+-- ============================================
+CREATE TABLE IF NOT EXISTS ai_cache_entries (
+    cache_key VARCHAR(64) PRIMARY KEY,   -- hex SHA-256 of kind, model, namespace, normalised text
+    kind VARCHAR(20) NOT NULL,           -- EMBEDDING or CLASSIFICATION
+    model VARCHAR(100) NOT NULL,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_ai_cache_created_at ON ai_cache_entries(created_at);